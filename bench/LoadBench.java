@@ -0,0 +1,92 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load generator closed-loop tanpa dependency (java bench/LoadBench.java ...).
+ *
+ *   java bench/LoadBench.java <baseUrl> <concurrency> <durationSeconds> <label>
+ *
+ * Setiap worker (virtual thread) mengirim request GET campuran ke endpoint list + by-nik
+ * lalu hasilnya dicetak sebagai satu baris JSON: throughput, error, p50/p90/p99/max (ms).
+ * Semua worker berasal dari satu alamat: jalankan app dengan warga.rate-limit.enabled=false
+ * (default), kalau tidak yang terukur adalah latency response 429.
+ */
+public class LoadBench {
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String label = args.length > 3 ? args[3] : "run";
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+
+        List<Future<long[]>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> runWorker(client, baseUrl, deadline)));
+            }
+        }
+
+        long[] all = new long[0];
+        long errors = 0;
+        for (Future<long[]> f : workers) {
+            long[] r = f.get();
+            errors += r[0];
+            long[] merged = Arrays.copyOf(all, all.length + r.length - 1);
+            System.arraycopy(r, 1, merged, all.length, r.length - 1);
+            all = merged;
+        }
+        Arrays.sort(all);
+        System.out.printf(
+                "{\"label\":\"%s\",\"concurrency\":%d,\"requests\":%d,\"errors\":%d,\"rps\":%.1f,"
+                        + "\"p50Ms\":%.2f,\"p90Ms\":%.2f,\"p99Ms\":%.2f,\"maxMs\":%.2f}%n",
+                label, concurrency, all.length, errors, all.length / (double) durationSeconds,
+                pct(all, 0.50), pct(all, 0.90), pct(all, 0.99), all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+    }
+
+    // index 0 = jumlah error (non-2xx / exception), sisanya latency (ns) setiap request
+    private static long[] runWorker(HttpClient client, String baseUrl, long deadline) {
+        long[] latencies = new long[1024];
+        int n = 1;
+        long errors = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            String path = random.nextInt(4) == 0
+                    ? "/warga/by-nik/" + String.format("%016d", random.nextLong(10_000_000_000_000_000L))
+                    : "/warga?page=" + (random.nextInt(50) + 1) + "&perpage=20&rt=" + (random.nextInt(40) + 1)
+                            + "&sortField=nama&count=none";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(60)).GET().build();
+            long started = System.nanoTime();
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status >= 500) errors++;
+            } catch (Exception e) {
+                errors++;
+            }
+            if (n == latencies.length) latencies = Arrays.copyOf(latencies, n * 2);
+            latencies[n++] = System.nanoTime() - started;
+        }
+        latencies[0] = errors;
+        return Arrays.copyOf(latencies, n);
+    }
+
+    private static double pct(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Alokasi heap per request (byte) untuk endpoint baca warga.
+#
+#   ./bench/alloc_benchmark.sh <pid> [requests] [base_url]
+#
+# Memaksa GC (jcmd GC.run) sebelum dan sesudah <requests> request berurutan, lalu membagi
+# selisih counter jvm.gc.memory.allocated (actuator) dengan jumlah request. Angka mencakup
+# seluruh JVM (Tomcat, Jackson, Hibernate), jadi jalankan saat aplikasi idle.
+set -euo pipefail
+
+PID=${1:?pid aplikasi}
+REQUESTS=${2:-500}
+BASE_URL=${3:-http://localhost:8080}
+NIK=${NIK:-$(curl -sS "$BASE_URL/warga/cursor?perpage=1" | sed -n 's/.*"nik":"\([0-9]*\)".*/\1/p')}
+
+allocated() {
+  jcmd "$PID" GC.run > /dev/null
+  sleep 1
+  curl -sS "$BASE_URL/actuator/metrics/jvm.gc.memory.allocated" | sed -n 's/.*"value":\([0-9.E]*\).*/\1/p'
+}
+
+measure() {
+  local name=$1 url=$2
+  for _ in $(seq 1 50); do curl -sS -o /dev/null "$url"; done   # warm-up (JIT, cache)
+  local before after
+  before=$(allocated)
+  for _ in $(seq 1 "$REQUESTS"); do curl -sS -o /dev/null "$url"; done
+  after=$(allocated)
+  awk -v n="$name" -v b="$before" -v a="$after" -v r="$REQUESTS" \
+      'BEGIN { printf "%-22s bytes/request=%.0f\n", n, (a - b) / r }'
+}
+
+measure "list perpage=200" "$BASE_URL/warga?perpage=200&sortField=nama"
+measure "list q perpage=200" "$BASE_URL/warga?perpage=200&q=budi"
+measure "cursor perpage=200" "$BASE_URL/warga/cursor?perpage=200"
+measure "by-nik" "$BASE_URL/warga/by-nik/$NIK"
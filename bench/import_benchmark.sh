@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Benchmark POST /warga/import (COPY ke staging table lalu satu INSERT ... ON CONFLICT).
+#
+#   ./bench/import_benchmark.sh [rows] [base_url]
+#
+# Membuat CSV sintetis <rows> baris (NIK/phone unik per run), mengirimnya ke
+# /warga/import, lalu mencetak summary (rowsPerSecond dihitung di server).
+# Jalankan dua kali untuk mengukur jalur upsert (semua baris jadi "updated").
+set -euo pipefail
+
+ROWS=${1:-100000}
+BASE_URL=${2:-http://localhost:8080}
+SEED=${SEED:-$(( RANDOM % 90 + 10 ))}
+CSV=$(mktemp /tmp/warga_import_XXXX.csv)
+trap 'rm -f "$CSV"' EXIT
+
+awk -v n="$ROWS" -v seed="$SEED" 'BEGIN {
+  print "nik,nama,phone_number,alamat,rt,rw"
+  for (i = 1; i <= n; i++) {
+    printf "%s%014d,Warga %d,08%s%09d,\"Jl. Mawar No. %d, Bandung\",%d,%d\n",
+           seed, i, i, seed, i, i % 500, (i % 40) + 1, (i % 20) + 1
+  }
+}' > "$CSV"
+
+echo "rows=$ROWS file=$(du -h "$CSV" | cut -f1)"
+start=$(date +%s.%N)
+curl -sS -X POST "$BASE_URL/warga/import" \
+     -H 'Content-Type: text/csv' --data-binary @"$CSV"
+end=$(date +%s.%N)
+echo
+awk -v s="$start" -v e="$end" -v n="$ROWS" 'BEGIN { printf "wall=%.2fs client_rows_per_sec=%.0f\n", e - s, n / (e - s) }'
@@ -0,0 +1,99 @@
+-- Benchmark pencarian q: LOWER LIKE '%x%' empat kolom (lama) vs strategi per-field (baru).
+--
+-- Jalankan terhadap database development (butuh pg_trgm):
+--   psql -h 127.0.0.1 -p 5433 -U mastama -d desa_digital -f bench/search_benchmark.sql
+--
+-- Script memakai tabel scratch warga_bench (bukan tabel warga) dan mengisi ulang untuk setiap ukuran.
+-- Hasil: rata-rata latency (ms) per query untuk setiap ukuran tabel, sebelum dan sesudah.
+\set ON_ERROR_STOP on
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DROP TABLE IF EXISTS warga_bench;
+CREATE TABLE warga_bench (LIKE public.warga INCLUDING DEFAULTS);
+
+DROP TABLE IF EXISTS warga_bench_result;
+CREATE TABLE warga_bench_result (
+    table_rows  INTEGER,
+    query_name  TEXT,
+    variant     TEXT,   -- before | after
+    avg_ms      NUMERIC(10, 3)
+);
+
+CREATE OR REPLACE FUNCTION pg_temp.bench_ms(sql TEXT, runs INTEGER) RETURNS NUMERIC AS $$
+DECLARE
+    started TIMESTAMPTZ;
+    total   INTERVAL := INTERVAL '0';
+    dummy   BIGINT;
+BEGIN
+    EXECUTE sql INTO dummy; -- warm up
+    FOR i IN 1..runs LOOP
+        started := clock_timestamp();
+        EXECUTE sql INTO dummy;
+        total := total + (clock_timestamp() - started);
+    END LOOP;
+    RETURN round((extract(epoch FROM total) * 1000 / runs)::NUMERIC, 3);
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    sizes   INTEGER[] := ARRAY[10000, 100000, 1000000];
+    n       INTEGER;
+    runs    INTEGER := 10;
+    -- query lama (semua kolom, LOWER LIKE '%x%') vs query baru (sesuai strategi per-field)
+    q_text_old TEXT := $q$SELECT count(*) FROM warga_bench WHERE lower(nik) LIKE '%budi%' OR lower(nama) LIKE '%budi%' OR lower(phone_number) LIKE '%budi%' OR lower(alamat) LIKE '%budi%'$q$;
+    q_text_new TEXT := $q$SELECT count(*) FROM warga_bench WHERE lower(nama) LIKE '%budi%' OR lower(alamat) LIKE '%budi%'$q$;
+    q_num_old  TEXT := $q$SELECT count(*) FROM warga_bench WHERE lower(nik) LIKE '%32010412%' OR lower(nama) LIKE '%32010412%' OR lower(phone_number) LIKE '%32010412%' OR lower(alamat) LIKE '%32010412%'$q$;
+    q_num_new  TEXT := $q$SELECT count(*) FROM warga_bench WHERE nik LIKE '32010412%' OR phone_number LIKE '32010412%'$q$;
+    q_page_old TEXT := $q$SELECT count(*) FROM (SELECT id FROM warga_bench WHERE lower(nik) LIKE '%sari%' OR lower(nama) LIKE '%sari%' OR lower(phone_number) LIKE '%sari%' OR lower(alamat) LIKE '%sari%' ORDER BY created_at LIMIT 10) p$q$;
+    q_page_new TEXT := $q$SELECT count(*) FROM (SELECT id FROM warga_bench WHERE lower(nama) LIKE '%sari%' OR lower(alamat) LIKE '%sari%' ORDER BY created_at LIMIT 10) p$q$;
+BEGIN
+    FOREACH n IN ARRAY sizes LOOP
+        TRUNCATE warga_bench;
+        DROP INDEX IF EXISTS idx_wb_nik_prefix, idx_wb_phone_prefix, idx_wb_nama_trgm, idx_wb_alamat_trgm, idx_wb_nama_lower;
+
+        INSERT INTO warga_bench (id, nik, nama, phone_number, alamat, rt, rw, created_at)
+        SELECT gen_random_uuid(),
+               (ARRAY['320101','320104','327301','317101','350701'])[1 + (g % 5)]
+                   || lpad(((g::BIGINT * 7919) % 10000000000)::TEXT, 10, '0'),
+               (ARRAY['Budi','Siti','Agus','Dewi','Sari','Rudi','Wati','Andi','Rina','Joko'])[1 + (g % 10)] || ' '
+                   || (ARRAY['Santoso','Wijaya','Saputra','Lestari','Hidayat','Kurniawan','Pratama','Utami'])[1 + ((g / 10) % 8)],
+               '08' || lpad(((g::BIGINT * 104729) % 10000000000)::TEXT, 10, '0'),
+               'Jl. ' || (ARRAY['Merdeka','Melati','Mawar','Kenanga','Sudirman','Diponegoro'])[1 + (g % 6)] || ' No. ' || (g % 200),
+               1 + (g % 15),
+               1 + (g % 8),
+               now() - (g || ' seconds')::INTERVAL
+        FROM generate_series(1, n) g;
+
+        -- sebelum: hanya index lama
+        CREATE INDEX idx_wb_nama_lower ON warga_bench (lower(nama));
+        ANALYZE warga_bench;
+        INSERT INTO warga_bench_result VALUES
+            (n, 'text q=budi (count)',     'before', pg_temp.bench_ms(q_text_old, runs)),
+            (n, 'numeric q=32010412 (count)', 'before', pg_temp.bench_ms(q_num_old, runs)),
+            (n, 'text q=sari (page 10)',   'before', pg_temp.bench_ms(q_page_old, runs));
+
+        -- sesudah: index dari initdb/003_search_indexes.sql
+        DROP INDEX idx_wb_nama_lower;
+        CREATE INDEX idx_wb_nik_prefix   ON warga_bench (nik text_pattern_ops);
+        CREATE INDEX idx_wb_phone_prefix ON warga_bench (phone_number text_pattern_ops);
+        CREATE INDEX idx_wb_nama_trgm    ON warga_bench USING gin (lower(nama) gin_trgm_ops);
+        CREATE INDEX idx_wb_alamat_trgm  ON warga_bench USING gin (lower(alamat) gin_trgm_ops);
+        ANALYZE warga_bench;
+        INSERT INTO warga_bench_result VALUES
+            (n, 'text q=budi (count)',     'after', pg_temp.bench_ms(q_text_new, runs)),
+            (n, 'numeric q=32010412 (count)', 'after', pg_temp.bench_ms(q_num_new, runs)),
+            (n, 'text q=sari (page 10)',   'after', pg_temp.bench_ms(q_page_new, runs));
+    END LOOP;
+END;
+$$;
+
+SELECT b.table_rows, b.query_name, b.avg_ms AS before_ms, a.avg_ms AS after_ms,
+       round(b.avg_ms / NULLIF(a.avg_ms, 0), 1) AS speedup
+FROM warga_bench_result b
+JOIN warga_bench_result a ON a.table_rows = b.table_rows AND a.query_name = b.query_name AND a.variant = 'after'
+WHERE b.variant = 'before'
+ORDER BY b.query_name, b.table_rows;
+
+DROP TABLE warga_bench;
+DROP TABLE warga_bench_result;
@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Bandingkan mode platform thread (default) vs profile vthreads (virtual thread + admission control).
+#
+#   ./bench/vthreads_benchmark.sh [concurrency] [durationSeconds]
+#
+# Butuh PostgreSQL sesuai application.properties dan data warga (mis. dari import_benchmark.sh).
+# Setiap mode: start app, warm-up 10 detik, lalu ukur dengan bench/LoadBench.java.
+# Rate limit per IP dimatikan: semua worker LoadBench datang dari satu alamat.
+# Pinning virtual thread dilaporkan oleh -Djdk.tracePinnedThreads=short ke log app.
+set -euo pipefail
+
+CONCURRENCY=${1:-400}
+DURATION=${2:-30}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:$PORT"
+cd "$(dirname "$0")/.."
+
+./mvnw -B -q -DskipTests package 2>/dev/null || mvn -B -q -DskipTests package
+JAR=$(ls target/identity-service-*.jar | grep -v plain | head -1)
+
+run_mode() {
+  local label=$1 profile=$2
+  java -Djdk.tracePinnedThreads=short -jar "$JAR" --server.port="$PORT" --warga.rate-limit.enabled=false \
+       ${profile:+--spring.profiles.active=$profile} > "/tmp/bench-$label.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" RETURN
+  until curl -sf "$BASE_URL/actuator/health" > /dev/null; do sleep 1; done
+
+  java bench/LoadBench.java "$BASE_URL" "$CONCURRENCY" 10 "$label-warmup" > /dev/null
+  java bench/LoadBench.java "$BASE_URL" "$CONCURRENCY" "$DURATION" "$label"
+  echo "pinned-events=$(grep -c 'onPinned\|<== monitors' "/tmp/bench-$label.log" || true)"
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+}
+
+run_mode platform ""
+run_mode vthreads vthreads
@@ -0,0 +1,6 @@
+-- Index untuk pagination keyset (GET /warga/cursor): satu index range seek pada (sortField, id).
+-- nik & phone_number sudah punya index UNIQUE sehingga tidak butuh id sebagai tie-breaker.
+CREATE INDEX IF NOT EXISTS idx_warga_nama_id       ON public.warga (nama, id);
+CREATE INDEX IF NOT EXISTS idx_warga_rt_id         ON public.warga (rt, id);
+CREATE INDEX IF NOT EXISTS idx_warga_rw_id         ON public.warga (rw, id);
+CREATE INDEX IF NOT EXISTS idx_warga_created_at_id ON public.warga (created_at, id);
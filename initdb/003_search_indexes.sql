@@ -0,0 +1,14 @@
+-- Index untuk pencarian q pada GET /warga.
+--  * q angka  -> prefix LIKE 'x%' pada nik / phone_number (btree text_pattern_ops, tidak tergantung collation)
+--             q angka >= 3 digit juga substring lower(alamat) (GIN trigram di bawah), mis. nomor rumah
+--  * q teks   -> substring LIKE '%x%' pada lower(nama) / lower(alamat) (GIN trigram)
+-- pg_trgm juga menyediakan similarity() untuk sortField=relevance.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_warga_nik_prefix    ON public.warga (nik text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_warga_phone_prefix  ON public.warga (phone_number text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_warga_nama_trgm     ON public.warga USING gin (lower(nama) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_warga_alamat_trgm   ON public.warga USING gin (lower(alamat) gin_trgm_ops);
+
+-- btree lower(nama) tidak bisa melayani LIKE '%x%'; digantikan idx_warga_nama_trgm
+DROP INDEX IF EXISTS public.idx_warga_nama_lower;
@@ -0,0 +1,3 @@
+-- Versi baris untuk optimistic locking (PATCH /warga/{nik}, @Version di entity Warga).
+-- Baris lama mulai dari 0; setiap UPDATE menaikkan version + 1.
+ALTER TABLE public.warga ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,28 @@
+-- Penanda perubahan tabel warga untuk ETag list (GET /warga, /warga/cursor). Database yang sudah ada
+-- sebelum file ini perlu menjalankannya manual; tanpa tabel ini list tetap dilayani tanpa conditional GET.
+-- Trigger per statement menaikkan salah satu dari 16 slot (dipilih dari pid backend) supaya write
+-- yang bersamaan tidak antre di satu baris. Marker = sum(version), ikut commit / rollback transaksi.
+CREATE TABLE IF NOT EXISTS public.warga_change_marker (
+    slot       SMALLINT    PRIMARY KEY,
+    version    BIGINT      NOT NULL DEFAULT 0,
+    changed_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+INSERT INTO public.warga_change_marker (slot)
+SELECT s FROM generate_series(0, 15) AS s
+ON CONFLICT (slot) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION public.warga_bump_change_marker() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE public.warga_change_marker
+    SET version = version + 1, changed_at = now()
+    WHERE slot = pg_backend_pid() % 16;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_warga_change_marker ON public.warga;
+CREATE TRIGGER trg_warga_change_marker
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON public.warga
+    FOR EACH STATEMENT EXECUTE FUNCTION public.warga_bump_change_marker();
@@ -0,0 +1,81 @@
+-- Outbox perubahan warga untuk change feed (GET /warga/changes, /warga/changes/stream).
+-- Trigger menulis snapshot before/after di transaksi yang sama dengan perubahannya,
+-- jadi create / update / delete lewat API, import, bulk delete maupun SQL manual ikut tercatat.
+--
+-- id dialokasikan saat insert, tetapi urutan commit bisa berbeda: consumer yang membaca "id > x"
+-- bisa melewatkan baris yang commit belakangan. Karena itu seq publik baru diisi oleh relay
+-- (satu relay aktif lewat advisory lock) untuk baris yang sudah terlihat, urut id, sehingga
+-- seq naik sesuai urutan publish dan tidak pernah muncul di belakang seq yang sudah dibaca.
+CREATE SEQUENCE IF NOT EXISTS public.warga_change_seq;
+
+CREATE TABLE IF NOT EXISTS public.warga_outbox (
+    id           BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    seq          BIGINT UNIQUE,                 -- NULL = belum dipublish relay
+    op           VARCHAR(6)  NOT NULL,          -- INSERT | UPDATE | DELETE
+    nik          VARCHAR(16) NOT NULL,
+    before       JSONB,
+    after        JSONB,
+    changed_at   TIMESTAMPTZ NOT NULL DEFAULT now(),
+    published_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS warga_outbox_unpublished_idx ON public.warga_outbox (id) WHERE seq IS NULL;
+
+-- posisi terakhir yang sudah diproses tiap consumer; dasar pemangkasan outbox
+CREATE TABLE IF NOT EXISTS public.warga_outbox_consumer (
+    consumer  VARCHAR(64) PRIMARY KEY,
+    acked_seq BIGINT      NOT NULL,
+    seen_at   TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- seq tertinggi yang sudah dipangkas; since di bawahnya tidak bisa dilayani lagi (410)
+CREATE TABLE IF NOT EXISTS public.warga_outbox_watermark (
+    id             SMALLINT PRIMARY KEY CHECK (id = 1),
+    pruned_through BIGINT   NOT NULL DEFAULT 0
+);
+
+INSERT INTO public.warga_outbox_watermark (id) VALUES (1) ON CONFLICT (id) DO NOTHING;
+
+-- field sama dengan WargaResponse
+CREATE OR REPLACE FUNCTION public.warga_snapshot(w public.warga) RETURNS jsonb
+    LANGUAGE sql IMMUTABLE AS $$
+SELECT jsonb_build_object(
+    'id', w.id, 'nik', w.nik, 'nama', w.nama, 'phoneNumber', w.phone_number,
+    'alamat', w.alamat, 'rt', w.rt, 'rw', w.rw, 'version', w.version)
+$$;
+
+-- Trigger per statement dengan transition table: satu INSERT ... SELECT per statement, bukan satu
+-- eksekusi plpgsql per baris, supaya import / bulk delete tidak melambat berkali lipat.
+-- (Transition table hanya boleh untuk satu event per trigger, jadi ada tiga trigger.)
+CREATE OR REPLACE FUNCTION public.warga_write_outbox() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO public.warga_outbox (op, nik, after)
+        SELECT TG_OP, n.nik, public.warga_snapshot(n) FROM new_rows n;
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO public.warga_outbox (op, nik, before, after)
+        SELECT TG_OP, n.nik, public.warga_snapshot(o), public.warga_snapshot(n)
+        FROM new_rows n JOIN old_rows o ON o.id = n.id;
+    ELSE
+        INSERT INTO public.warga_outbox (op, nik, before)
+        SELECT TG_OP, o.nik, public.warga_snapshot(o) FROM old_rows o;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_warga_outbox ON public.warga;
+DROP TRIGGER IF EXISTS trg_warga_outbox_insert ON public.warga;
+DROP TRIGGER IF EXISTS trg_warga_outbox_update ON public.warga;
+DROP TRIGGER IF EXISTS trg_warga_outbox_delete ON public.warga;
+
+CREATE TRIGGER trg_warga_outbox_insert
+    AFTER INSERT ON public.warga REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.warga_write_outbox();
+CREATE TRIGGER trg_warga_outbox_update
+    AFTER UPDATE ON public.warga REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.warga_write_outbox();
+CREATE TRIGGER trg_warga_outbox_delete
+    AFTER DELETE ON public.warga REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION public.warga_write_outbox();
@@ -0,0 +1,77 @@
+package com.yolifay.identityservice.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yolifay.identityservice.dto.WargaResponse;
+import com.yolifay.identityservice.dto.pagination.BasePaging;
+import com.yolifay.identityservice.dto.pagination.CountStrategy;
+import com.yolifay.identityservice.dto.pagination.PageEnvelope;
+import com.yolifay.identityservice.dto.pagination.SortMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Envelope response: kode respons (formatCode) dan serialisasi JSON satu halaman list warga.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBenchmark {
+    private ObjectMapper objectMapper;
+    private ResponseApiService<PageEnvelope<WargaResponse>> page;
+
+    @Setup
+    public void setup() {
+        // konfigurasi default yang sama dengan ObjectMapper Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<WargaResponse> content = IntStream.range(0, 20)
+                .mapToObj(i -> WargaResponse.builder()
+                        .id(UUID.randomUUID().toString())
+                        .nik(String.format("32730112%08d", i))
+                        .nama("Warga Nomor " + i)
+                        .phoneNumber(String.format("0812%08d", i))
+                        .alamat("Jl. Mawar No. " + i + ", Bandung")
+                        .rt(i % 40 + 1)
+                        .rw(i % 20 + 1)
+                        .version(0L)
+                        .build())
+                .toList();
+        BasePaging paging = new BasePaging(3, 20, "nama", "asc", null, CountStrategy.EXACT);
+        page = ResponseApiUtil.setResponse(200, "00001", Constants.RESPONSE.APPROVED,
+                PageEnvelope.of(paging, 100_000, content, new SortMeta("nama", "asc")));
+    }
+
+    @Benchmark
+    public ResponseApiService<Void> setResponse() {
+        return ResponseApiUtil.setResponse(200, "00001", Constants.RESPONSE.APPROVED, null);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    // seperti MappingJackson2HttpMessageConverter: generator langsung ke OutputStream response
+    @Benchmark
+    public void writePage() throws Exception {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), page);
+    }
+}
@@ -0,0 +1,60 @@
+package com.yolifay.identityservice.dto.pagination;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalisasi parameter paging (compact constructor BasePaging) dan penyusunan PageEnvelope.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PagingBenchmark {
+    // nilai mentah dari query string; field non-final supaya tidak di-constant-fold
+    private Integer page = 3;
+    private Integer perpage = 20;
+    private String sortField = "nama";
+    private String sortDirection = "DESC";
+    private String q = "budi";
+
+    private BasePaging paging;
+    private List<Object> content;
+    private SortMeta sortMeta;
+
+    @Setup
+    public void setup() {
+        paging = new BasePaging(page, perpage, sortField, sortDirection, q, CountStrategy.EXACT);
+        content = Collections.nCopies(20, new Object());
+        sortMeta = new SortMeta("nama", "desc");
+    }
+
+    @Benchmark
+    public BasePaging basePaging() {
+        return new BasePaging(page, perpage, sortField, sortDirection, q, CountStrategy.from("exact"));
+    }
+
+    @Benchmark
+    public PageEnvelope<Object> pageEnvelopeOf() {
+        return PageEnvelope.of(paging, 100_000, content, sortMeta);
+    }
+
+    @Benchmark
+    public PageEnvelope<Object> pageEnvelopeOfSlice() {
+        return PageEnvelope.ofSlice(paging, content, true, null, sortMeta);
+    }
+}
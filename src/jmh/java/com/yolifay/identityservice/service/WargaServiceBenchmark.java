@@ -0,0 +1,69 @@
+package com.yolifay.identityservice.service;
+
+import com.yolifay.identityservice.dto.WargaResponse;
+import com.yolifay.identityservice.dto.filter.WargaFilter;
+import com.yolifay.identityservice.entity.Warga;
+import com.yolifay.identityservice.repository.WargaCriteria;
+import com.yolifay.identityservice.repository.WargaSpecifications;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Bagian CPU dari WargaService per request list: mapping entity -> response (Lombok builder)
+ * untuk satu halaman, dan penyusunan criteria + Specification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WargaServiceBenchmark {
+    private List<Warga> rows;
+    private WargaFilter filter;
+    private String q = "  Budi ";
+
+    @Setup
+    public void setup() {
+        rows = IntStream.range(0, 20)
+                .mapToObj(i -> Warga.builder()
+                        .id(UUID.randomUUID())
+                        .nik(String.format("32730112%08d", i))
+                        .nama("Warga Nomor " + i)
+                        .phoneNumber(String.format("0812%08d", i))
+                        .alamat("Jl. Mawar No. " + i + ", Bandung")
+                        .rt(i % 40 + 1)
+                        .rw(i % 20 + 1)
+                        .createdAt(Instant.now())
+                        .build())
+                .toList();
+        filter = new WargaFilter();
+        filter.setRt(5);
+        filter.setRw(2);
+    }
+
+    @Benchmark
+    public List<WargaResponse> mapPage() {
+        return rows.stream().map(WargaService::mapToResponse).toList();
+    }
+
+    @Benchmark
+    public Specification<Warga> buildSpecification() {
+        return WargaSpecifications.filter(WargaCriteria.of(q, filter));
+    }
+}
@@ -0,0 +1,252 @@
+package com.yolifay.identityservice.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load: {@code concurrency} virtual thread, masing-masing memilih operasi sesuai bobot
+ * mix lalu memanggil endpoint WargaController yang sebenarnya lewat HTTP.
+ */
+final class LoadDriver {
+    enum Op { LIST, BY_NIK, CREATE, UPDATE, DELETE }
+
+    /** Latency (ns) + status per operasi dari satu worker; digabung setelah run selesai. */
+    static final class Recorder {
+        private final Map<Op, long[]> latencies = new EnumMap<>(Op.class);
+        private final Map<Op, Integer> sizes = new EnumMap<>(Op.class);
+        private final Map<Op, Map<Integer, Long>> statuses = new EnumMap<>(Op.class);
+
+        void record(Op op, int status, long nanos) {
+            append(op, nanos);
+            statuses.computeIfAbsent(op, k -> new TreeMap<>()).merge(status, 1L, Long::sum);
+        }
+
+        void mergeInto(Recorder target) {
+            latencies.forEach((op, values) -> {
+                for (int i = 0; i < sizes.get(op); i++) {
+                    target.append(op, values[i]);
+                }
+            });
+            statuses.forEach((op, counts) -> counts.forEach((status, count) ->
+                    target.statuses.computeIfAbsent(op, k -> new TreeMap<>()).merge(status, count, Long::sum)));
+        }
+
+        Map<String, Object> summary(Op op, double seconds) {
+            int n = sizes.getOrDefault(op, 0);
+            long[] sorted = Arrays.copyOf(latencies.getOrDefault(op, new long[0]), n);
+            Arrays.sort(sorted);
+            Map<Integer, Long> status = statuses.getOrDefault(op, Map.of());
+            long errors = status.entrySet().stream().filter(e -> e.getKey() >= 500 || e.getKey() < 0)
+                    .mapToLong(Map.Entry::getValue).sum();
+
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("mean", n == 0 ? 0 : round(Arrays.stream(sorted).average().orElse(0) / 1e6));
+            latency.put("p50", round(percentile(sorted, 50) / 1e6));
+            latency.put("p90", round(percentile(sorted, 90) / 1e6));
+            latency.put("p95", round(percentile(sorted, 95) / 1e6));
+            latency.put("p99", round(percentile(sorted, 99) / 1e6));
+            latency.put("p999", round(percentile(sorted, 99.9) / 1e6));
+            latency.put("max", n == 0 ? 0 : round(sorted[n - 1] / 1e6));
+
+            Map<String, Long> statusOut = new LinkedHashMap<>();
+            status.forEach((s, c) -> statusOut.put(s < 0 ? "exception" : String.valueOf(s), c));
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", n);
+            result.put("rps", round(n / seconds));
+            result.put("errors", errors);
+            result.put("statuses", statusOut);
+            result.put("latencyMs", latency);
+            return result;
+        }
+
+        private void append(Op op, long nanos) {
+            long[] values = latencies.computeIfAbsent(op, k -> new long[256]);
+            int n = sizes.getOrDefault(op, 0);
+            if (n == values.length) {
+                values = Arrays.copyOf(values, n * 2);
+                latencies.put(op, values);
+            }
+            values[n] = nanos;
+            sizes.put(op, n + 1);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        private static double round(double v) {
+            return Math.round(v * 100.0) / 100.0;
+        }
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final Map<Op, Integer> mix;
+    private final int totalWeight;
+    private final List<String> sampleNiks;
+    private final ConcurrentLinkedDeque<String> created = new ConcurrentLinkedDeque<>();
+    private final List<String> allCreated = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong sequence = new AtomicLong();
+    private final long randomSeed;
+
+    LoadDriver(String baseUrl, Map<Op, Integer> mix, List<String> sampleNiks, long randomSeed) {
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.sampleNiks = sampleNiks;
+        this.randomSeed = randomSeed;
+    }
+
+    /** NIK yang dibuat selama run (untuk dibersihkan setelahnya). */
+    List<String> createdNiks() {
+        return allCreated;
+    }
+
+    Recorder run(int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Recorder>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                long workerSeed = randomSeed * 31 + i + sequence.incrementAndGet() * 1_000_003L;
+                workers.add(executor.submit(() -> work(deadline, new WargaDataGenerator(workerSeed))));
+            }
+        }
+        Recorder total = new Recorder();
+        for (Future<Recorder> worker : workers) {
+            worker.get().mergeInto(total);
+        }
+        return total;
+    }
+
+    private Recorder work(long deadline, WargaDataGenerator generator) {
+        Recorder recorder = new Recorder();
+        while (System.nanoTime() < deadline) {
+            Op op = pick();
+            HttpRequest request = request(op, generator);
+            if (request == null) continue;
+            long started = System.nanoTime();
+            int status;
+            String body = null;
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                status = response.statusCode();
+                body = response.body();
+            } catch (Exception e) {
+                status = -1;
+            }
+            recorder.record(op, status, System.nanoTime() - started);
+            afterResponse(op, request, status, body);
+        }
+        return recorder;
+    }
+
+    private HttpRequest request(Op op, WargaDataGenerator generator) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (op) {
+            case LIST -> get("/warga?" + listQuery(generator, random));
+            case BY_NIK -> get("/warga/by-nik/" + (random.nextInt(10) == 0 || sampleNiks.isEmpty()
+                    ? generator.next().nik()
+                    : sampleNiks.get(random.nextInt(sampleNiks.size()))));
+            case CREATE -> json("POST", "/warga", toJson(generator.next()));
+            case UPDATE -> {
+                String nik = created.pollFirst();
+                if (nik == null) yield json("POST", "/warga", toJson(generator.next()));
+                WargaDataGenerator.Row r = generator.next();
+                yield json("PUT", "/warga/" + nik,
+                        toJson(new WargaDataGenerator.Row(nik, r.nama(), r.phoneNumber(), r.alamat(), r.rt(), r.rw())));
+            }
+            case DELETE -> {
+                String nik = created.pollLast();
+                yield nik == null ? null : HttpRequest.newBuilder(URI.create(baseUrl + "/warga/" + nik))
+                        .timeout(Duration.ofSeconds(60)).DELETE().build();
+            }
+        };
+    }
+
+    private void afterResponse(Op op, HttpRequest request, int status, String body) {
+        String path = request.uri().getPath();
+        String nik = path.substring(path.lastIndexOf('/') + 1);
+        if ("POST".equals(request.method()) && status == 201 && body != null) {
+            int i = body.indexOf("\"nik\":\"");
+            if (i >= 0) {
+                String createdNik = body.substring(i + 7, i + 23);
+                created.addLast(createdNik);
+                allCreated.add(createdNik);
+            }
+        } else if (op == Op.UPDATE && "PUT".equals(request.method()) && status != 404) {
+            created.addFirst(nik);
+        }
+    }
+
+    private String listQuery(WargaDataGenerator generator, ThreadLocalRandom random) {
+        StringBuilder q = new StringBuilder("perpage=20&page=").append(1 + Math.min(9, (int) Math.abs(random.nextGaussian() * 3)));
+        int shape = random.nextInt(10);
+        if (shape < 3) {
+            q.append("&q=").append(enc(generator.firstNamePrefix()));
+        } else if (shape < 5) {
+            q.append("&q=").append(generator.regionCode());
+        }
+        if (random.nextInt(3) == 0) q.append("&rt=").append(1 + random.nextInt(10));
+        if (random.nextInt(3) == 0) q.append("&rw=").append(1 + random.nextInt(8));
+        String[] sorts = shape < 3 ? new String[] { "relevance", "nama" } : new String[] { "nama", "createdAt", "rt" };
+        q.append("&sortField=").append(sorts[random.nextInt(sorts.length)]);
+        q.append("&sortDirection=").append(random.nextBoolean() ? "asc" : "desc");
+        q.append("&count=").append(random.nextInt(4) == 0 ? "exact" : "estimated");
+        return q.toString();
+    }
+
+    private Op pick() {
+        int r = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Op, Integer> e : mix.entrySet()) {
+            r -= e.getValue();
+            if (r < 0) return e.getKey();
+        }
+        return Op.LIST;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String toJson(WargaDataGenerator.Row r) {
+        return "{\"nik\":\"" + r.nik() + "\",\"nama\":\"" + r.nama() + "\",\"phoneNumber\":\"" + r.phoneNumber()
+                + "\",\"alamat\":\"" + r.alamat() + "\",\"rt\":" + r.rt() + ",\"rw\":" + r.rw() + "}";
+    }
+
+    private static String enc(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,168 @@
+package com.yolifay.identityservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yolifay.identityservice.IdentityServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test end-to-end: seed tabel warga dengan data sintetis sebanyak {@code --scale} baris, start
+ * aplikasi in-process (atau pakai {@code --base-url} yang sudah jalan), lalu jalankan campuran
+ * list / by-nik / create / update / delete pada {@code --concurrency} klien selama {@code --duration}.
+ * Hasil per endpoint (throughput, status, latency percentile) ditulis ke file JSON.
+ *
+ * <pre>
+ *   ./mvnw -Ploadtest -DskipTests test-compile exec:exec \
+ *       -Dloadtest.args="--scale=100000 --concurrency=64 --duration=60s"
+ * </pre>
+ *
+ * Opsi (default): --scale=100000 --concurrency=64 --duration=60s --warmup=15s
+ * --mix=list:50,by-nik:25,create:10,update:10,delete:5 --reset=false --seed=true --random-seed=42
+ * --jdbc-url=jdbc:postgresql://127.0.0.1:5432/postgres --db-user=mastama --db-password=post456
+ * --initdb-dir=initdb --out=target/loadtest/result-&lt;scale&gt;-&lt;timestamp&gt;.json --base-url=(kosong).
+ * Argumen lain berbentuk --spring.* / --warga.* / --logging.* diteruskan ke aplikasi in-process.
+ *
+ * Dengan --base-url, seed harus dilakukan sebelum aplikasi start (key filter NIK dibangun saat startup).
+ */
+public final class LoadTestRunner {
+    private LoadTestRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumen harus --key=value: " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            if (key.startsWith("spring.") || key.startsWith("warga.") || key.startsWith("logging.")
+                    || key.startsWith("server.") || key.startsWith("management.")) {
+                appArgs.add(arg);
+            } else {
+                options.put(key, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+
+        long scale = Long.parseLong(options.getOrDefault("scale", "100000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "60s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "15s"));
+        Map<LoadDriver.Op, Integer> mix = parseMix(options.getOrDefault("mix", "list:50,by-nik:25,create:10,update:10,delete:5"));
+        long randomSeed = Long.parseLong(options.getOrDefault("random-seed", "42"));
+        String jdbcUrl = options.getOrDefault("jdbc-url", "jdbc:postgresql://127.0.0.1:5432/postgres");
+        String dbUser = options.getOrDefault("db-user", "mastama");
+        String dbPassword = options.getOrDefault("db-password", "post456");
+        String baseUrl = options.get("base-url");
+        Path out = Path.of(options.getOrDefault("out", "target/loadtest/result-" + scale + "-"
+                + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC).format(Instant.now()) + ".json"));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", Instant.now().toString());
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("scale", scale);
+        config.put("concurrency", concurrency);
+        config.put("durationSeconds", duration.toSeconds());
+        config.put("warmupSeconds", warmup.toSeconds());
+        config.put("mix", options.getOrDefault("mix", "list:50,by-nik:25,create:10,update:10,delete:5"));
+        config.put("randomSeed", randomSeed);
+        config.put("target", baseUrl != null ? baseUrl : "in-process");
+        config.put("jdbcUrl", jdbcUrl);
+        config.put("appArgs", appArgs);
+        config.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("config", config);
+
+        try (WargaSeeder seeder = new WargaSeeder(jdbcUrl, dbUser, dbPassword)) {
+            // 1. Schema + data
+            seeder.ensureSchema(Path.of(options.getOrDefault("initdb-dir", "initdb")));
+            if (Boolean.parseBoolean(options.getOrDefault("reset", "false"))) {
+                seeder.truncate();
+            }
+            Map<String, Object> seed = new LinkedHashMap<>();
+            long seedStarted = System.nanoTime();
+            long seeded = Boolean.parseBoolean(options.getOrDefault("seed", "true"))
+                    ? seeder.seedUpTo(scale, new WargaDataGenerator(randomSeed))
+                    : 0;
+            seed.put("seededRows", seeded);
+            seed.put("seedMs", (System.nanoTime() - seedStarted) / 1_000_000);
+            seed.put("rows", seeder.count());
+            report.put("seed", seed);
+            System.out.println("[loadtest] seed " + seed);
+            List<String> sample = seeder.sampleNiks(10_000);
+
+            // 2. Aplikasi
+            ConfigurableApplicationContext app = null;
+            if (baseUrl == null) {
+                List<String> springArgs = new ArrayList<>(List.of(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + jdbcUrl,
+                        "--spring.datasource.username=" + dbUser,
+                        "--spring.datasource.password=" + dbPassword));
+                // semua worker dari satu alamat: rate limit per IP mati kecuali diminta lewat appArgs
+                if (appArgs.stream().noneMatch(a -> a.startsWith("--warga.rate-limit.enabled"))) {
+                    springArgs.add("--warga.rate-limit.enabled=false");
+                }
+                springArgs.addAll(appArgs);
+                app = new SpringApplicationBuilder(IdentityServiceApplication.class).run(springArgs.toArray(String[]::new));
+                baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            }
+
+            // 3. Warm-up lalu pengukuran
+            LoadDriver driver = new LoadDriver(baseUrl, mix, sample, randomSeed);
+            try {
+                System.out.println("[loadtest] warm-up " + warmup.toSeconds() + "s against " + baseUrl);
+                driver.run(concurrency, warmup);
+                System.out.println("[loadtest] measure " + duration.toSeconds() + "s, concurrency=" + concurrency);
+                LoadDriver.Recorder recorder = driver.run(concurrency, duration);
+
+                Map<String, Object> endpoints = new LinkedHashMap<>();
+                for (LoadDriver.Op op : mix.keySet()) {
+                    endpoints.put(opName(op), recorder.summary(op, duration.toSeconds()));
+                }
+                report.put("endpoints", endpoints);
+            } finally {
+                if (app != null) app.close();
+                seed.put("cleanedUpRows", seeder.deleteNiks(driver.createdNiks()));
+            }
+        }
+
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+        System.out.println("[loadtest] result -> " + out.toAbsolutePath());
+        System.out.println(Files.readString(out));
+        System.exit(0);
+    }
+
+    private static Map<LoadDriver.Op, Integer> parseMix(String value) {
+        Map<LoadDriver.Op, Integer> mix = new EnumMap<>(LoadDriver.Op.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.trim().split(":");
+            mix.put(LoadDriver.Op.valueOf(kv[0].trim().toUpperCase().replace('-', '_')), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+
+    private static String opName(LoadDriver.Op op) {
+        return op.name().toLowerCase().replace('_', '-');
+    }
+
+    private static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        if (v.endsWith("s")) return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        if (v.endsWith("m")) return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+}
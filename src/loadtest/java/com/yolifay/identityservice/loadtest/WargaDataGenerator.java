@@ -0,0 +1,101 @@
+package com.yolifay.identityservice.loadtest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Data warga sintetis yang bentuknya mirip data Dukcapil:
+ * NIK = kode wilayah kecamatan (6) + tanggal lahir DDMMYY (tanggal +40 untuk perempuan) + nomor urut (4),
+ * nomor HP dengan prefix operator Indonesia, RT/RW dengan sebaran miring (RT kecil lebih padat).
+ */
+final class WargaDataGenerator {
+
+    record Region(String code, String city, int weight) {}
+
+    record Row(String nik, String nama, String phoneNumber, String alamat, int rt, int rw) {}
+
+    // kode wilayah kecamatan; weight ~ kepadatan relatif
+    static final List<Region> REGIONS = List.of(
+            new Region("317101", "Jakarta Pusat", 8),
+            new Region("317401", "Jakarta Selatan", 12),
+            new Region("327301", "Bandung", 10),
+            new Region("327101", "Bogor", 7),
+            new Region("327501", "Bekasi", 9),
+            new Region("357801", "Surabaya", 10),
+            new Region("337401", "Semarang", 6),
+            new Region("347101", "Yogyakarta", 4),
+            new Region("127101", "Medan", 8),
+            new Region("167101", "Palembang", 5),
+            new Region("737101", "Makassar", 5),
+            new Region("517101", "Denpasar", 3),
+            new Region("617101", "Pontianak", 2),
+            new Region("647101", "Balikpapan", 2));
+
+    private static final String[] MALE = {
+            "Budi", "Agus", "Andi", "Dedi", "Eko", "Hendra", "Joko", "Rudi", "Slamet", "Wahyu",
+            "Arif", "Bambang", "Dimas", "Fajar", "Gilang", "Hadi", "Irfan", "Yusuf", "Rizky", "Teguh"};
+    private static final String[] FEMALE = {
+            "Siti", "Dewi", "Sri", "Rina", "Lestari", "Wulan", "Ayu", "Fitri", "Indah", "Nur",
+            "Putri", "Ratna", "Sari", "Yuni", "Mega", "Nabila", "Anisa", "Kartika", "Maya", "Utami"};
+    private static final String[] LAST = {
+            "Santoso", "Wijaya", "Saputra", "Hidayat", "Pratama", "Kurniawan", "Setiawan", "Nugroho",
+            "Siregar", "Nasution", "Sihombing", "Lubis", "Hasibuan", "Permana", "Gunawan", "Susanto",
+            "Rahman", "Syahputra", "Purnomo", "Halim"};
+    private static final String[] STREETS = {
+            "Mawar", "Melati", "Kenanga", "Merdeka", "Sudirman", "Diponegoro", "Gatot Subroto",
+            "Ahmad Yani", "Pahlawan", "Cempaka", "Flamboyan", "Veteran", "Kartini", "Pemuda"};
+    private static final String[] OPERATOR_PREFIXES = {
+            "0811", "0812", "0813", "0821", "0822", "0852", "0853", "0857", "0858",
+            "0877", "0878", "0881", "0895", "0896"};
+
+    private final Random random;
+    private final int totalWeight;
+
+    WargaDataGenerator(long seed) {
+        this.random = new Random(seed);
+        this.totalWeight = REGIONS.stream().mapToInt(Region::weight).sum();
+    }
+
+    Row next() {
+        Region region = region();
+        boolean female = random.nextBoolean();
+        LocalDate birth = LocalDate.of(1940, 1, 1).plusDays(random.nextInt(365 * 66));
+        String nik = region.code()
+                + String.format("%02d%02d%02d", birth.getDayOfMonth() + (female ? 40 : 0),
+                        birth.getMonthValue(), birth.getYear() % 100)
+                + String.format("%04d", 1 + random.nextInt(9999));
+
+        String first = female ? pick(FEMALE) : pick(MALE);
+        String nama = random.nextInt(10) < 8 ? first + " " + pick(LAST) : first;
+        String phone = pick(OPERATOR_PREFIXES) + String.format("%08d", random.nextInt(100_000_000));
+        String alamat = "Jl. " + pick(STREETS) + " No. " + (1 + random.nextInt(200)) + ", " + region.city();
+
+        // RT: sebagian besar 1-10, ekor sampai 30; RW: 1-15
+        int rt = Math.min(30, 1 + (int) Math.abs(random.nextGaussian() * 6));
+        int rw = Math.min(15, 1 + (int) Math.abs(random.nextGaussian() * 4));
+        return new Row(nik, nama, phone, alamat, rt, rw);
+    }
+
+    String firstNamePrefix() {
+        String name = random.nextBoolean() ? pick(MALE) : pick(FEMALE);
+        return name.substring(0, Math.min(name.length(), 3 + random.nextInt(2))).toLowerCase();
+    }
+
+    String regionCode() {
+        return region().code();
+    }
+
+    private Region region() {
+        int r = random.nextInt(totalWeight);
+        for (Region region : REGIONS) {
+            r -= region.weight();
+            if (r < 0) return region;
+        }
+        return REGIONS.get(0);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
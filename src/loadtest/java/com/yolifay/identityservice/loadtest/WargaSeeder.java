@@ -0,0 +1,147 @@
+package com.yolifay.identityservice.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Operasi JDBC langsung untuk load test: siapkan schema (initdb/*.sql), seed data sintetis
+ * lewat COPY sampai jumlah baris = scale, ambil sampel NIK, dan bersihkan data hasil run.
+ */
+final class WargaSeeder implements AutoCloseable {
+    private static final int COPY_CHUNK = 10_000;
+
+    private final Connection connection;
+
+    WargaSeeder(String jdbcUrl, String user, String password) throws SQLException {
+        this.connection = DriverManager.getConnection(jdbcUrl, user, password);
+    }
+
+    /** Jalankan initdb/*.sql berurutan jika tabel warga belum ada. */
+    void ensureSchema(Path initdbDir) throws SQLException, IOException {
+        try (ResultSet rs = connection.createStatement().executeQuery("SELECT to_regclass('public.warga')")) {
+            rs.next();
+            if (rs.getString(1) != null) return;
+        }
+        List<Path> scripts;
+        try (Stream<Path> files = Files.list(initdbDir)) {
+            scripts = files.filter(p -> p.toString().endsWith(".sql")).sorted().toList();
+        }
+        for (Path script : scripts) {
+            System.out.println("[loadtest] apply " + script);
+            try (Statement st = connection.createStatement()) {
+                st.execute(Files.readString(script));
+            }
+        }
+    }
+
+    void truncate() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("TRUNCATE public.warga");
+        }
+    }
+
+    long count() throws SQLException {
+        try (ResultSet rs = connection.createStatement().executeQuery("SELECT count(*) FROM public.warga")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /** Tambah baris sintetis sampai tabel berisi {@code target} baris; return jumlah baris yang ditambahkan. */
+    long seedUpTo(long target, WargaDataGenerator generator) throws SQLException {
+        long before = count();
+        long current = before;
+        for (int attempt = 0; current < target && attempt < 10; attempt++) {
+            copyBatch(target - current, generator);
+            current = count();
+        }
+        try (Statement st = connection.createStatement()) {
+            st.execute("ANALYZE public.warga");
+        }
+        return current - before;
+    }
+
+    // COPY ke staging lalu INSERT ... ON CONFLICT DO NOTHING: NIK / nomor HP acak yang bentrok dilewati
+    private void copyBatch(long rows, WargaDataGenerator generator) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TEMP TABLE warga_seed (nik text, nama text, phone_number text, alamat text, rt int, rw int) ON COMMIT DROP");
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY warga_seed FROM STDIN WITH (FORMAT csv)");
+            try {
+                StringBuilder chunk = new StringBuilder();
+                for (long i = 0; i < rows; i++) {
+                    WargaDataGenerator.Row r = generator.next();
+                    chunk.append(r.nik()).append(',').append(r.nama()).append(',').append(r.phoneNumber())
+                            .append(",\"").append(r.alamat()).append("\",").append(r.rt()).append(',').append(r.rw())
+                            .append('\n');
+                    if ((i + 1) % COPY_CHUNK == 0 || i + 1 == rows) {
+                        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+                        copy.writeToCopy(bytes, 0, bytes.length);
+                        chunk.setLength(0);
+                    }
+                }
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) copy.cancelCopy();
+            }
+            st.execute("""
+                    INSERT INTO public.warga (id, nik, nama, phone_number, alamat, rt, rw, created_at, updated_at)
+                    SELECT gen_random_uuid(), nik, nama, phone_number, alamat, rt, rw,
+                           now() - random() * interval '730 days', now()
+                    FROM warga_seed
+                    ON CONFLICT DO NOTHING
+                    """);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    List<String> sampleNiks(int limit) throws SQLException {
+        List<String> niks = new ArrayList<>(limit);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT nik FROM public.warga ORDER BY random() LIMIT ?")) {
+            ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) niks.add(rs.getString(1));
+            }
+        }
+        return niks;
+    }
+
+    /** Hapus baris yang dibuat oleh run (POST /warga) supaya run berikutnya mulai dari scale yang sama. */
+    int deleteNiks(Collection<String> niks) throws SQLException {
+        if (niks.isEmpty()) return 0;
+        try (PreparedStatement ps = connection.prepareStatement("DELETE FROM public.warga WHERE nik = ANY(?)")) {
+            Array array = connection.createArrayOf("text", niks.toArray());
+            ps.setArray(1, array);
+            return ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+}
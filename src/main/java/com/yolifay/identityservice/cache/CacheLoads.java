@@ -0,0 +1,83 @@
+package com.yolifay.identityservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through tanpa {@code Cache.get(key, loader)}: loader Caffeine berjalan di dalam
+ * ConcurrentHashMap.compute (blok synchronized) sehingga query JDBC di dalamnya mem-pin
+ * virtual thread ke carrier-nya (Java 21). Di sini loader berjalan di luar lock.
+ */
+final class CacheLoads {
+    private CacheLoads() {}
+
+    /**
+     * @param epoch dinaikkan oleh setiap invalidasi; jika berubah selama load, hasil load bisa
+     *              jadi data lama sehingga entry yang baru di-put dibuang lagi.
+     */
+    static <K, V> V get(Cache<K, V> cache, AtomicLong epoch, K key, Function<K, V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        return load(cache, epoch, key, loader);
+    }
+
+    /**
+     * Seperti {@link #get}, tetapi miss yang bersamaan untuk key yang sama berbagi satu load.
+     * epoch dipakai sebagai generation: setelah invalidasi, request baru tidak ikut load yang lama.
+     */
+    static <K, V> V get(Cache<K, V> cache, AtomicLong epoch, SingleFlight<K, V> flights, K key, Function<K, V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        return flights.execute(key, epoch.get(), () -> load(cache, epoch, key, loader));
+    }
+
+    private static <K, V> V load(Cache<K, V> cache, AtomicLong epoch, K key, Function<K, V> loader) {
+        long started = epoch.get();
+        V loaded = loader.apply(key);
+        cache.put(key, loaded);
+        if (epoch.get() != started) {
+            cache.invalidate(key);
+        }
+        return loaded;
+    }
+
+    /**
+     * Versi banyak key dari {@link #get}: key yang belum ada di cache dimuat dengan satu panggilan
+     * {@code loader}, yang wajib mengembalikan nilai untuk setiap key yang diminta.
+     * Hasil mengikuti urutan {@code keys}.
+     */
+    static <K, V> Map<K, V> getAll(Cache<K, V> cache, AtomicLong epoch, Collection<K> keys,
+                                   Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> cached = cache.getAllPresent(keys);
+        Set<K> missing = new LinkedHashSet<>(keys);
+        missing.removeAll(cached.keySet());
+
+        Map<K, V> loaded = Map.of();
+        if (!missing.isEmpty()) {
+            long started = epoch.get();
+            loaded = loader.apply(missing);
+            cache.putAll(loaded);
+            if (epoch.get() != started) {
+                cache.invalidateAll(loaded.keySet());
+            }
+        }
+
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = cached.containsKey(key) ? cached.get(key) : loaded.get(key);
+            if (value != null) result.put(key, value);
+        }
+        return result;
+    }
+}
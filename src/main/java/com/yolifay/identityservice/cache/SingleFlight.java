@@ -0,0 +1,88 @@
+package com.yolifay.identityservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight: request identik yang datang bersamaan berbagi satu eksekusi loader yang sedang
+ * berjalan. Bukan cache: entry dilepas begitu loader selesai, request berikutnya memuat ulang.
+ *
+ * {@code generation} memisahkan data sebelum dan sesudah write: request hanya ikut eksekusi yang
+ * dimulai pada generation yang sama, jadi request yang datang setelah write commit tidak menerima
+ * hasil query yang dimulai sebelum write tersebut.
+ *
+ * Loader berjalan di thread pemanggil pertama (leader), di luar lock apa pun; follower menunggu
+ * CompletableFuture, yang aman untuk virtual thread.
+ * Metrik: warga.single-flight{flight, result=leader|coalesced} dan warga.single-flight.active (key yang sedang dimuat).
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder("warga.single-flight").tag("flight", name).tag("result", "leader")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("warga.single-flight").tag("flight", name).tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("warga.single-flight.active", flights, ConcurrentHashMap::size).tag("flight", name)
+                .register(meterRegistry);
+    }
+
+    /** Hasil loader untuk {@code key}, dari eksekusi yang sedang berjalan jika ada. */
+    public V execute(K key, long generation, Supplier<V> loader) {
+        Flight<V> mine = new Flight<>(generation);
+        while (true) {
+            Flight<V> current = flights.putIfAbsent(key, mine);
+            if (current == null) {
+                break;
+            }
+            if (current.generation == generation) {
+                coalesced.increment();
+                return current.await();
+            }
+            // eksekusi lama dari generation sebelumnya: follower-nya tetap menunggu, yang baru memulai eksekusi sendiri
+            if (flights.replace(key, current, mine)) {
+                break;
+            }
+        }
+
+        leaders.increment();
+        try {
+            V value = loader.get();
+            mine.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, mine);
+        }
+    }
+
+    private static final class Flight<V> {
+        private final long generation;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        private Flight(long generation) {
+            this.generation = generation;
+        }
+
+        // exception leader diteruskan apa adanya supaya GlobalExceptionHandler memetakannya sama
+        private V await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                if (e.getCause() instanceof Error err) throw err;
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.yolifay.identityservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yolifay.identityservice.repository.WargaCriteria;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache COUNT(*) exact per filter (q, rt, rw) dengan TTL singkat.
+ * Dikosongkan setiap ada create/update/delete.
+ */
+@Component
+public class WargaCountCache {
+    private final Cache<WargaCriteria, Long> cache;
+    private final AtomicLong epoch = new AtomicLong();
+
+    public WargaCountCache(@Value("${warga.count-cache.ttl:30s}") Duration ttl,
+                           @Value("${warga.count-cache.max-size:1000}") long maxSize,
+                           MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "warga.count");
+    }
+
+    public long get(WargaCriteria criteria, Supplier<Long> counter) {
+        return CacheLoads.get(cache, epoch, criteria, k -> counter.get());
+    }
+
+    /** Naik di setiap invalidasi (write); dipakai juga sebagai generation single-flight list. */
+    public long generation() {
+        return epoch.get();
+    }
+
+    /**
+     * Kosongkan cache sekarang dan sekali lagi setelah commit, supaya count lama yang dibaca
+     * request lain selama transaksi write berjalan tidak tertinggal di cache.
+     */
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    epoch.incrementAndGet();
+                    cache.invalidateAll();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.yolifay.identityservice.cache;
+
+import com.yolifay.identityservice.repository.WargaCriteria;
+import com.yolifay.identityservice.repository.WargaJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Bloom filter in-memory untuk NIK dan nomor telepon yang sudah terdaftar, dipakai untuk melewati
+ * pre-check duplikat saat create batch: "tidak ada" dari filter melewati query, "mungkin ada" tetap dicek ke DB.
+ * Filter hanya tahu write lewat JVM ini (bukan instance lain, SQL manual atau seeding COPY), jadi
+ * "tidak ada" bisa salah; karena itu filter tidak dipakai untuk menjawab lookup (404), hanya di jalur
+ * yang tetap dijaga unique constraint. Selama filter belum siap semua key dianggap "mungkin ada".
+ *
+ * Key baru ditambahkan sekarang dan sekali lagi setelah commit, supaya tidak hilang jika
+ * rebuild sedang berjalan. Key yang dihapus tidak bisa dibuang dari Bloom filter; jumlahnya
+ * dicatat sebagai stale key dan filter di-rebuild berkala atau saat rasio stale terlampaui.
+ */
+@Slf4j
+@Component
+public class WargaKeyFilter {
+    public enum Key { NIK, PHONE_NUMBER }
+
+    private record Filters(BloomFilter nik, BloomFilter phoneNumber) {
+        void put(String nikValue, String phoneNumberValue) {
+            if (nikValue != null) nik.put(nikValue);
+            if (phoneNumberValue != null) phoneNumber.put(phoneNumberValue);
+        }
+
+        BloomFilter of(Key key) {
+            return key == Key.NIK ? nik : phoneNumber;
+        }
+    }
+
+    private final WargaJdbcRepository wargaJdbcRepository;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final Duration rebuildInterval;
+    private final double staleRatio;
+    private final int fetchSize;
+
+    private volatile Filters current;   // null = belum siap
+    private volatile Filters building;  // non-null selama rebuild berjalan
+    private volatile long lastBuiltAt;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong staleKeys = new AtomicLong();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final Counter nikNegative;
+    private final Counter nikPositive;
+    private final Counter nikFalsePositive;
+    private final Counter phoneNumberNegative;
+    private final Counter phoneNumberPositive;
+    private final Counter phoneNumberFalsePositive;
+
+    public WargaKeyFilter(WargaJdbcRepository wargaJdbcRepository,
+                          @Value("${warga.key-filter.enabled:true}") boolean enabled,
+                          @Value("${warga.key-filter.expected-insertions:1000000}") long expectedInsertions,
+                          @Value("${warga.key-filter.fpp:0.01}") double fpp,
+                          @Value("${warga.key-filter.rebuild-interval:6h}") Duration rebuildInterval,
+                          @Value("${warga.key-filter.stale-ratio:0.1}") double staleRatio,
+                          @Value("${warga.key-filter.fetch-size:10000}") int fetchSize,
+                          MeterRegistry meterRegistry) {
+        this.wargaJdbcRepository = wargaJdbcRepository;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.rebuildInterval = rebuildInterval;
+        this.staleRatio = staleRatio;
+        this.fetchSize = fetchSize;
+
+        this.nikNegative = checks(meterRegistry, Key.NIK, "negative");
+        this.nikPositive = checks(meterRegistry, Key.NIK, "positive");
+        this.nikFalsePositive = falsePositives(meterRegistry, Key.NIK);
+        this.phoneNumberNegative = checks(meterRegistry, Key.PHONE_NUMBER, "negative");
+        this.phoneNumberPositive = checks(meterRegistry, Key.PHONE_NUMBER, "positive");
+        this.phoneNumberFalsePositive = falsePositives(meterRegistry, Key.PHONE_NUMBER);
+
+        for (Key key : Key.values()) {
+            gauge(meterRegistry, "warga.keyfilter.memory", key, "bytes", f -> f.sizeInBytes());
+            gauge(meterRegistry, "warga.keyfilter.insertions", key, null, f -> f.insertions());
+            gauge(meterRegistry, "warga.keyfilter.expected.fpp", key, null, BloomFilter::expectedFpp);
+        }
+        Gauge.builder("warga.keyfilter.false.positive.rate", this, f -> ratio(nikFalsePositive, nikPositive))
+                .tag("key", "nik").register(meterRegistry);
+        Gauge.builder("warga.keyfilter.false.positive.rate", this,
+                        f -> ratio(phoneNumberFalsePositive, phoneNumberPositive))
+                .tag("key", "phone_number").register(meterRegistry);
+        Gauge.builder("warga.keyfilter.stale.keys", staleKeys, AtomicLong::get).register(meterRegistry);
+    }
+
+    public boolean mightContainNik(String nik) {
+        return mightContain(Key.NIK, nik, nikNegative, nikPositive);
+    }
+
+    public boolean mightContainPhoneNumber(String phoneNumber) {
+        return mightContain(Key.PHONE_NUMBER, phoneNumber, phoneNumberNegative, phoneNumberPositive);
+    }
+
+    /** Dipanggil saat filter bilang "mungkin ada" tapi DB bilang tidak ada. */
+    public void recordFalsePositives(Key key, long count) {
+        if (current == null || count <= 0) return;
+        (key == Key.NIK ? nikFalsePositive : phoneNumberFalsePositive).increment(count);
+    }
+
+    /** Tambah key yang baru ditulis (create / update); parameter null diabaikan. */
+    public void add(String nik, String phoneNumber) {
+        if (!enabled) return;
+        putNow(nik, phoneNumber);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putNow(nik, phoneNumber);
+                }
+            });
+        }
+    }
+
+    /**
+     * Untuk penulisan massal (import) yang key-nya terlalu banyak untuk disimpan sampai commit:
+     * key di-put sekarang lewat {@code consumer}; jika rebuild dimulai sebelum commit, filter baru
+     * bisa kehilangan key tersebut sehingga filter di-invalidate dan di-rebuild ulang.
+     */
+    public KeySink bulkAdd() {
+        if (!enabled) return (nik, phoneNumber) -> { };
+        long startGeneration = generation.get();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    if (generation.get() != startGeneration) {
+                        invalidate();
+                    }
+                }
+            });
+        }
+        return this::putNow;
+    }
+
+    /** Key yang sudah tidak dipakai (delete / ganti nomor telepon) tapi masih ada di filter. */
+    public void markStale(long keys) {
+        if (!enabled) return;
+        staleKeys.addAndGet(keys);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${warga.key-filter.check-interval:1m}",
+               initialDelayString = "${warga.key-filter.check-interval:1m}")
+    public void rebuildIfNeeded() {
+        if (!enabled) return;
+        Filters filters = current;
+        boolean due = System.currentTimeMillis() - lastBuiltAt >= rebuildInterval.toMillis();
+        boolean tooStale = filters != null && staleKeys.get() > filters.nik().insertions() * staleRatio;
+        if (filters == null || due || tooStale || rebuildRequested.get()) {
+            rebuild();
+        }
+    }
+
+    /** Bangun ulang filter dari tabel warga lalu tukar secara atomik. */
+    public void rebuild() {
+        // ReentrantLock, bukan synchronized: rebuild melakukan JDBC dan scheduler bisa berjalan di virtual thread
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void doRebuild() {
+        long started = System.nanoTime();
+        rebuildRequested.set(false);
+        long rows = wargaJdbcRepository.estimateCount(WargaCriteria.of(null, null)).orElse(0L);
+        long capacity = Math.max(expectedInsertions, rows * 2);
+        Filters next = new Filters(new BloomFilter(capacity, fpp), new BloomFilter(capacity, fpp));
+
+        generation.incrementAndGet();
+        building = next;
+        try {
+            wargaJdbcRepository.streamKeys(fetchSize, rs -> next.put(rs.getString(1), rs.getString(2)));
+            current = next;
+            staleKeys.set(0);
+            lastBuiltAt = System.currentTimeMillis();
+            log.info("[keyfilter] rebuilt keys={} capacity={} bytes={} tookMs={}",
+                    next.nik().insertions(), capacity, next.nik().sizeInBytes() + next.phoneNumber().sizeInBytes(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("[keyfilter] rebuild failed: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    private void invalidate() {
+        log.info("[keyfilter] invalidated, menunggu rebuild");
+        current = null;
+        rebuildRequested.set(true);
+    }
+
+    // building dibaca sebelum current: doRebuild menulis current = next lalu building = null, jadi jika
+    // building sudah null saat dibaca, current yang dibaca sesudahnya pasti filter baru. Urutan
+    // sebaliknya bisa membaca current lama lalu building null, dan key hilang dari filter baru.
+    private void putNow(String nik, String phoneNumber) {
+        Filters next = building;
+        Filters filters = current;
+        if (next != null) next.put(nik, phoneNumber);
+        if (filters != null && filters != next) filters.put(nik, phoneNumber);
+    }
+
+    private boolean mightContain(Key key, String value, Counter negative, Counter positive) {
+        Filters filters = current;
+        if (!enabled || filters == null) return true;
+        if (filters.of(key).mightContain(value)) {
+            positive.increment();
+            return true;
+        }
+        negative.increment();
+        return false;
+    }
+
+    private void gauge(MeterRegistry registry, String name, Key key, String unit, ToDoubleFunction<BloomFilter> fn) {
+        Gauge.builder(name, this, f -> {
+                    Filters filters = f.current;
+                    return filters == null ? 0 : fn.applyAsDouble(filters.of(key));
+                })
+                .tag("key", tagOf(key))
+                .baseUnit(unit)
+                .register(registry);
+    }
+
+    private static Counter checks(MeterRegistry registry, Key key, String result) {
+        return Counter.builder("warga.keyfilter.checks").tag("key", tagOf(key)).tag("result", result).register(registry);
+    }
+
+    private static Counter falsePositives(MeterRegistry registry, Key key) {
+        return Counter.builder("warga.keyfilter.false.positives").tag("key", tagOf(key)).register(registry);
+    }
+
+    private static double ratio(Counter part, Counter whole) {
+        return whole.count() == 0 ? 0 : part.count() / whole.count();
+    }
+
+    private static String tagOf(Key key) {
+        return key == Key.NIK ? "nik" : "phone_number";
+    }
+
+    @FunctionalInterface
+    public interface KeySink {
+        void put(String nik, String phoneNumber);
+    }
+}
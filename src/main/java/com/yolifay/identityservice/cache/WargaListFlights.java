@@ -0,0 +1,30 @@
+package com.yolifay.identityservice.cache;
+
+import com.yolifay.identityservice.dto.WargaResponse;
+import com.yolifay.identityservice.dto.pagination.PageEnvelope;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Single-flight untuk GET /warga: halaman yang sama (mis. halaman pertama di awal hari kerja) yang
+ * diminta bersamaan cukup dieksekusi sekali. Generation mengikuti epoch {@link WargaCountCache},
+ * yang naik di setiap write (sebelum dan sesudah commit), jadi request sesudah write tidak ikut
+ * query yang dimulai sebelumnya.
+ */
+@Component
+public class WargaListFlights {
+    private final WargaCountCache wargaCountCache;
+    private final SingleFlight<Object, PageEnvelope<WargaResponse>> pages;
+
+    public WargaListFlights(WargaCountCache wargaCountCache, MeterRegistry meterRegistry) {
+        this.wargaCountCache = wargaCountCache;
+        this.pages = new SingleFlight<>("list", meterRegistry);
+    }
+
+    /** @param key request list yang sudah dinormalisasi (equals per nilai) */
+    public PageEnvelope<WargaResponse> page(Object key, Supplier<PageEnvelope<WargaResponse>> loader) {
+        return pages.execute(key, wargaCountCache.generation(), loader);
+    }
+}
@@ -0,0 +1,127 @@
+package com.yolifay.identityservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.yolifay.identityservice.dto.WargaResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache in-process untuk lookup warga by NIK / nomor telepon.
+ * Menyimpan juga hasil negatif (Optional.empty) dengan TTL lebih pendek.
+ * Statistik hit/miss/eviction tersedia di /actuator/metrics (cache.gets, cache.evictions).
+ */
+@Component
+public class WargaLookupCache {
+    private final Cache<String, Optional<WargaResponse>> byNik;
+    private final Cache<String, Optional<WargaResponse>> byPhoneNumber;
+    private final AtomicLong epoch = new AtomicLong();
+    // miss NIK yang sama secara bersamaan (mis. awal hari kerja) cukup satu query
+    private final SingleFlight<String, Optional<WargaResponse>> nikLoads;
+
+    public WargaLookupCache(@Value("${warga.lookup-cache.max-size:50000}") long maxSize,
+                            @Value("${warga.lookup-cache.ttl:5m}") Duration ttl,
+                            @Value("${warga.lookup-cache.negative-ttl:30s}") Duration negativeTtl,
+                            MeterRegistry meterRegistry) {
+        this.byNik = build(maxSize, ttl, negativeTtl);
+        this.byPhoneNumber = build(maxSize, ttl, negativeTtl);
+        CaffeineCacheMetrics.monitor(meterRegistry, byNik, "warga.lookup.nik");
+        CaffeineCacheMetrics.monitor(meterRegistry, byPhoneNumber, "warga.lookup.phone");
+        this.nikLoads = new SingleFlight<>("nik", meterRegistry);
+    }
+
+    public Optional<WargaResponse> getByNik(String nik, Function<String, Optional<WargaResponse>> loader) {
+        return CacheLoads.get(byNik, epoch, nikLoads, nik, loader);
+    }
+
+    /** Lookup banyak NIK; NIK yang belum ter-cache dimuat sekaligus dengan satu panggilan {@code loader}. */
+    public Map<String, Optional<WargaResponse>> getAllByNik(Collection<String> niks,
+                                                            Function<Set<String>, Map<String, Optional<WargaResponse>>> loader) {
+        return CacheLoads.getAll(byNik, epoch, niks, loader);
+    }
+
+    public Optional<WargaResponse> getByPhoneNumber(String phoneNumber, Function<String, Optional<WargaResponse>> loader) {
+        return CacheLoads.get(byPhoneNumber, epoch, phoneNumber, loader);
+    }
+
+    /**
+     * Hapus entry NIK + nomor telepon (lama dan baru) secara langsung, dan sekali lagi setelah commit
+     * supaya pembacaan data lama selama transaksi write tidak tertinggal di cache.
+     */
+    public void evict(String nik, String... phoneNumbers) {
+        evictNow(nik, phoneNumbers);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(nik, phoneNumbers);
+                }
+            });
+        }
+    }
+
+    /** Dipakai setelah perubahan massal (import) yang key-nya tidak diketahui satu per satu. */
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        byNik.invalidateAll();
+        byPhoneNumber.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    epoch.incrementAndGet();
+                    byNik.invalidateAll();
+                    byPhoneNumber.invalidateAll();
+                }
+            });
+        }
+    }
+
+    private void evictNow(String nik, String... phoneNumbers) {
+        epoch.incrementAndGet();
+        if (nik != null) {
+            byNik.invalidate(nik);
+        }
+        Arrays.stream(phoneNumbers).filter(Objects::nonNull).forEach(byPhoneNumber::invalidate);
+    }
+
+    private static Cache<String, Optional<WargaResponse>> build(long maxSize, Duration ttl, Duration negativeTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<WargaResponse>>() {
+                    @Override
+                    public long expireAfterCreate(String key, Optional<WargaResponse> value, long currentTime) {
+                        return (value.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Optional<WargaResponse> value,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Optional<WargaResponse> value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+}
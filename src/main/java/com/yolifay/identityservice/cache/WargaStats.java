@@ -0,0 +1,243 @@
+package com.yolifay.identityservice.cache;
+
+import com.yolifay.identityservice.dto.WargaStatsResponse;
+import com.yolifay.identityservice.repository.WargaCellCount;
+import com.yolifay.identityservice.repository.WargaJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Jumlah warga per (rw, rt) di memori untuk GET /warga/stats, tanpa GROUP BY per request.
+ * Dibangun sekali saat startup, lalu setiap create / update RT-RW / delete menambah atau mengurangi
+ * satu sel setelah commit (O(1)). Penulisan yang tidak melewati service (import, SQL manual) dan
+ * selisih lain dikoreksi oleh reconcile berkala: GROUP BY ke DB menggantikan seluruh aggregate.
+ *
+ * Delta yang masuk selama query reconcile berjalan tidak diterapkan ulang ke hasil query: snapshot
+ * GROUP BY bisa saja sudah memuatnya, sehingga replay menghitungnya dua kali. Sebagai gantinya
+ * reconcile berikutnya dijadwalkan pada check berikutnya; sampai saat itu aggregate boleh tertinggal
+ * sebanyak perubahan yang commit selama query.
+ */
+@Slf4j
+@Component
+public class WargaStats {
+    private record Cell(Integer rw, Integer rt) {}
+
+    private static final Comparator<Integer> NULLS_LAST = Comparator.nullsLast(Comparator.naturalOrder());
+
+    private final WargaJdbcRepository wargaJdbcRepository;
+    private final Duration reconcileInterval;
+
+    private volatile Map<Cell, LongAdder> counts;   // null = belum siap
+    private volatile Instant reconciledAt;
+    private boolean reconciling;                     // dijaga deltaLock
+    private final AtomicBoolean changedDuringReconcile = new AtomicBoolean();
+    private final ReentrantReadWriteLock deltaLock = new ReentrantReadWriteLock();
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    private final AtomicBoolean reconcileRequested = new AtomicBoolean();
+
+    private final Counter drift;
+
+    public WargaStats(WargaJdbcRepository wargaJdbcRepository,
+                      @Value("${warga.stats.reconcile-interval:10m}") Duration reconcileInterval,
+                      MeterRegistry meterRegistry) {
+        this.wargaJdbcRepository = wargaJdbcRepository;
+        this.reconcileInterval = reconcileInterval;
+        this.drift = Counter.builder("warga.stats.drift")
+                .description("Selisih jumlah warga (aggregate vs DB) yang dikoreksi reconcile")
+                .register(meterRegistry);
+    }
+
+    /** Warga baru di (rw, rt). */
+    public void added(Integer rw, Integer rt) {
+        afterCommit(() -> apply(new Cell(rw, rt), 1));
+    }
+
+    /** Warga pindah RW / RT; tidak melakukan apa-apa jika sel-nya sama. */
+    public void moved(Integer fromRw, Integer fromRt, Integer toRw, Integer toRt) {
+        if (Objects.equals(fromRw, toRw) && Objects.equals(fromRt, toRt)) return;
+        afterCommit(() -> {
+            apply(new Cell(fromRw, fromRt), -1);
+            apply(new Cell(toRw, toRt), 1);
+        });
+    }
+
+    /** Warga dihapus dari (rw, rt). */
+    public void removed(Integer rw, Integer rt) {
+        afterCommit(() -> apply(new Cell(rw, rt), -1));
+    }
+
+    /** Hasil DELETE massal yang sudah dijumlahkan per sel. */
+    public void removed(List<WargaCellCount> cells) {
+        afterCommit(() -> cells.forEach(c -> apply(new Cell(c.rw(), c.rt()), -c.count())));
+    }
+
+    /** Untuk penulisan massal yang perubahan per sel-nya tidak diketahui (import): reconcile di check berikutnya. */
+    public void requestReconcile() {
+        afterCommit(() -> reconcileRequested.set(true));
+    }
+
+    /** Snapshot terurut per RW lalu RT; aggregate dibangun dulu jika belum siap. Empty jika DB tidak bisa dibaca. */
+    public Optional<WargaStatsResponse> snapshot() {
+        Map<Cell, LongAdder> current = counts;
+        if (current == null) {
+            reconcile();
+            current = counts;
+            if (current == null) return Optional.empty();
+        }
+
+        Map<Integer, Map<Integer, Long>> byRw = new TreeMap<>(NULLS_LAST);
+        long total = 0;
+        for (Map.Entry<Cell, LongAdder> e : current.entrySet()) {
+            long n = e.getValue().sum();
+            if (n <= 0) continue;
+            byRw.computeIfAbsent(e.getKey().rw(), k -> new TreeMap<>(NULLS_LAST)).put(e.getKey().rt(), n);
+            total += n;
+        }
+
+        List<WargaStatsResponse.RwStats> rws = new ArrayList<>(byRw.size());
+        byRw.forEach((rw, byRt) -> {
+            List<WargaStatsResponse.RtStats> rts = new ArrayList<>(byRt.size());
+            long rwTotal = 0;
+            for (Map.Entry<Integer, Long> rt : byRt.entrySet()) {
+                rts.add(new WargaStatsResponse.RtStats(rt.getKey(), rt.getValue()));
+                rwTotal += rt.getValue();
+            }
+            rws.add(new WargaStatsResponse.RwStats(rw, rwTotal, rts));
+        });
+        return Optional.of(new WargaStatsResponse(total, rws, reconciledAt));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${warga.stats.check-interval:30s}",
+               initialDelayString = "${warga.stats.check-interval:30s}")
+    public void reconcileIfNeeded() {
+        Instant last = reconciledAt;
+        boolean due = last == null || Duration.between(last, Instant.now()).compareTo(reconcileInterval) >= 0;
+        if (counts == null || due || reconcileRequested.get()) {
+            reconcile();
+        }
+    }
+
+    /** Ganti aggregate dengan hasil GROUP BY dari DB. */
+    public void reconcile() {
+        // ReentrantLock, bukan synchronized: reconcile melakukan JDBC dan scheduler bisa berjalan di virtual thread
+        reconcileLock.lock();
+        try {
+            doReconcile();
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private void doReconcile() {
+        long started = System.nanoTime();
+        reconcileRequested.set(false);
+        withDeltaLock(() -> {
+            reconciling = true;
+            changedDuringReconcile.set(false);
+        });
+        try {
+            Map<Cell, LongAdder> next = new ConcurrentHashMap<>();
+            for (WargaCellCount c : wargaJdbcRepository.countByRwRt()) {
+                next.computeIfAbsent(new Cell(c.rw(), c.rt()), k -> new LongAdder()).add(c.count());
+            }
+            long[] diff = new long[1];
+            withDeltaLock(() -> {
+                Map<Cell, LongAdder> previous = counts;
+                if (previous != null) {
+                    diff[0] = drift(previous, next);
+                }
+                counts = next;
+                reconciling = false;
+                // tidak diketahui apakah snapshot sudah memuat perubahan tersebut: ulangi di check berikutnya
+                if (changedDuringReconcile.get()) {
+                    reconcileRequested.set(true);
+                }
+            });
+            reconciledAt = Instant.now();
+            drift.increment(diff[0]);
+            if (diff[0] > 0) {
+                log.warn("[stats] reconciled cells={} drift={} tookMs={}", next.size(), diff[0],
+                        (System.nanoTime() - started) / 1_000_000);
+            } else {
+                log.info("[stats] reconciled cells={} tookMs={}", next.size(), (System.nanoTime() - started) / 1_000_000);
+            }
+        } catch (RuntimeException e) {
+            withDeltaLock(() -> reconciling = false);
+            log.warn("[stats] reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(Cell cell, long delta) {
+        // read lock: banyak writer boleh bersamaan, hanya ditahan sebentar saat reconcile menukar aggregate
+        deltaLock.readLock().lock();
+        try {
+            Map<Cell, LongAdder> current = counts;
+            if (current != null) current.computeIfAbsent(cell, k -> new LongAdder()).add(delta);
+            if (reconciling) changedDuringReconcile.set(true);
+        } finally {
+            deltaLock.readLock().unlock();
+        }
+    }
+
+    private void withDeltaLock(Runnable action) {
+        deltaLock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            deltaLock.writeLock().unlock();
+        }
+    }
+
+    private static long drift(Map<Cell, LongAdder> previous, Map<Cell, LongAdder> next) {
+        long diff = 0;
+        for (Map.Entry<Cell, LongAdder> e : next.entrySet()) {
+            LongAdder before = previous.get(e.getKey());
+            diff += Math.abs(e.getValue().sum() - (before == null ? 0 : before.sum()));
+        }
+        for (Map.Entry<Cell, LongAdder> e : previous.entrySet()) {
+            if (!next.containsKey(e.getKey())) diff += Math.abs(e.getValue().sum());
+        }
+        return diff;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -23,6 +23,8 @@ public class Constants {
         GATEWAY_TIMEOUT("58", "Gateway Timeout"),
 
         DATA_EXISTS("15", "Data sudah ada"),
+        DATA_CHANGED("16", "Data sudah diubah, ambil ulang lalu coba lagi"),
+        CHANGES_EXPIRED("17", "Perubahan sudah dipangkas, lakukan sinkronisasi ulang"),
         ACCOUNT_NOT_FOUND("14", "Data tidak ditemukan"),
         INVALID_CREDENTIALS("51", "Username/Password salah"),
         TRANSACTION_TIMEOUT("68", "Transaction Timeout"),
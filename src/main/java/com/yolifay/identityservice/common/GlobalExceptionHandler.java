@@ -1,24 +1,37 @@
 package com.yolifay.identityservice.common;
 
 import com.yolifay.identityservice.exception.BadRequestException;
+import com.yolifay.identityservice.exception.ChangeFeedExpiredException;
 import com.yolifay.identityservice.exception.ConflictException;
 import com.yolifay.identityservice.exception.DataNotFoundException;
+import com.yolifay.identityservice.exception.ServiceUnavailableException;
+import com.yolifay.identityservice.exception.TooManyRequestsException;
+import com.yolifay.identityservice.exception.VersionConflictException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
+import java.sql.SQLException;
+import java.time.Duration;
+
 @Slf4j
 @RequiredArgsConstructor
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+
     private final ConstantsProperties constantsProperties;
 
     @ExceptionHandler(DataNotFoundException.class)
@@ -60,6 +73,106 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<ResponseApiService<String>> handleVersionConflict(VersionConflictException e) {
+        log.warn("VersionConflict: {}", e.getMessage());
+        return versionConflict(e.getMessage());
+    }
+
+    // jaring pengaman: @Version entity (mis. delete via JPA) yang kalah balapan tetap 409, bukan 500
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ResponseApiService<String>> handleOptimisticLocking(OptimisticLockingFailureException e) {
+        log.warn("OptimisticLockingFailure: {}", e.getMessage());
+        return versionConflict("Data sudah diubah oleh request lain");
+    }
+
+    private ResponseEntity<ResponseApiService<String>> versionConflict(String message) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.CONFLICT.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.DATA_CHANGED,
+                        message
+                )
+        );
+    }
+
+    @ExceptionHandler(ChangeFeedExpiredException.class)
+    public ResponseEntity<ResponseApiService<String>> handleChangeFeedExpired(ChangeFeedExpiredException e) {
+        log.warn("ChangeFeedExpired: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.GONE).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.GONE.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.CHANGES_EXPIRED,
+                        e.getMessage()
+                )
+        );
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ResponseApiService<String>> handleServiceUnavailable(ServiceUnavailableException e) {
+        log.warn("ServiceUnavailable: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).headers(retryAfter(e.getRetryAfter())).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.SERVICE_UNAVAILABLE.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.SERVICE_UNAVAILABLE,
+                        e.getMessage()
+                )
+        );
+    }
+
+    // tidak di-log per request: saat satu client membanjiri, log ikut banjir; lihat metrik warga.rate-limit.rejected
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ResponseApiService<String>> handleTooManyRequests(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).headers(retryAfter(e.getRetryAfter())).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.TOO_MANY_REQUESTS.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.TOO_MANY_REQUESTS,
+                        e.getMessage()
+                )
+        );
+    }
+
+    // Retry-After dalam detik, dibulatkan ke atas (minimal 1)
+    private static HttpHeaders retryAfter(Duration retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+            headers.set(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        }
+        return headers;
+    }
+
+    // jaring pengaman: unique violation yang tidak diterjemahkan di service tetap 409, bukan 500.
+    // Pelanggaran lain (CHECK, NOT NULL, FK, terlalu panjang) adalah bug, bukan "data sudah ada"
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ResponseApiService<Void>> handleDataIntegrityViolation(DataIntegrityViolationException e) {
+        if (!isUniqueViolation(e)) {
+            return handleOthers(e);
+        }
+        log.warn("DataIntegrityViolation: {}", e.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.CONFLICT.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.DATA_EXISTS,
+                        null
+                )
+        );
+    }
+
+    private static boolean isUniqueViolation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @ExceptionHandler(NoResourceFoundException.class)
     public ResponseEntity<ResponseApiService<Void>> handleNoResource(NoResourceFoundException e) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
@@ -99,6 +212,21 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ResponseApiService<String>> handleMethodArgumentNotValid(MethodArgumentNotValidException e) {
+        // ambil pesan field pertama
+        String msg = e.getBindingResult().getFieldErrors().stream()
+                .findFirst().map(f -> f.getField() + " " + f.getDefaultMessage()).orElse("Validation error");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.BAD_REQUEST.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.BAD_REQUEST,
+                        msg
+                )
+        );
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ResponseApiService<Void>> handleOthers(Exception e) {
         log.error("Unhandled error", e);
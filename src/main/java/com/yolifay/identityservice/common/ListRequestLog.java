@@ -0,0 +1,123 @@
+package com.yolifay.identityservice.common;
+
+import com.yolifay.identityservice.repository.WargaCriteria;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Satu event log terstruktur (key=value) per request list warga, menggantikan log per langkah.
+ * Request sukses di-sampling (warga.list-log.sample-rate); request gagal dan lambat selalu dicatat.
+ * Pesan hanya diformat jika event benar-benar dicatat.
+ */
+@Slf4j
+@Component
+public class ListRequestLog {
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public ListRequestLog(@Value("${warga.list-log.sample-rate:0.01}") double sampleRate,
+                          @Value("${warga.list-log.slow-threshold:500ms}") Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    public Event begin(String mode) {
+        return new Event(mode, System.nanoTime());
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Field event dikumpulkan selama request berjalan lalu ditutup dengan {@link #success} atau {@link #failure}.
+     */
+    public final class Event {
+        private final String mode;
+        private final long started;
+        private WargaCriteria criteria;
+        private String sortField;
+        private String sortDirection;
+        private String sortFallback;
+        private String count;
+        private Integer page;
+        private Integer perpage;
+        private boolean after;
+
+        private Event(String mode, long started) {
+            this.mode = mode;
+            this.started = started;
+        }
+
+        public Event criteria(WargaCriteria criteria) {
+            this.criteria = criteria;
+            return this;
+        }
+
+        public Event sort(String sortField, String sortDirection) {
+            this.sortField = sortField;
+            this.sortDirection = sortDirection;
+            return this;
+        }
+
+        /** Sort yang diminta tidak didukung dan diganti; dicatat nilai aslinya. */
+        public Event sortFallback(String requested) {
+            this.sortFallback = requested;
+            return this;
+        }
+
+        public Event page(Integer page, int perpage, String count) {
+            this.page = page;
+            this.perpage = perpage;
+            this.count = count;
+            return this;
+        }
+
+        public Event cursor(int perpage, boolean after) {
+            this.perpage = perpage;
+            this.after = after;
+            return this;
+        }
+
+        public void success(int rows, Long total, Boolean hasNext) {
+            long elapsed = System.nanoTime() - started;
+            boolean slow = elapsed >= slowThresholdNanos;
+            if (slow) {
+                if (log.isWarnEnabled()) {
+                    log.warn("[list] {} rows={} total={} hasNext={} tookMs={} outcome=slow",
+                            fields(), rows, total, hasNext, elapsed / 1_000_000);
+                }
+            } else if (log.isInfoEnabled() && sampled()) {
+                log.info("[list] {} rows={} total={} hasNext={} tookMs={} outcome=success sampleRate={}",
+                        fields(), rows, total, hasNext, elapsed / 1_000_000, sampleRate);
+            }
+        }
+
+        public void failure(Exception e) {
+            long elapsed = System.nanoTime() - started;
+            log.warn("[list] {} tookMs={} outcome=error error={} message='{}'",
+                    fields(), elapsed / 1_000_000, e.getClass().getSimpleName(), e.getMessage());
+        }
+
+        private String fields() {
+            StringBuilder sb = new StringBuilder(160).append("mode=").append(mode);
+            if (criteria != null) {
+                sb.append(" filter=").append(criteria.shape())
+                        .append(" q='").append(criteria.q() == null ? "" : criteria.q()).append('\'')
+                        .append(" rt=").append(criteria.rt())
+                        .append(" rw=").append(criteria.rw());
+            }
+            sb.append(" sortField=").append(sortField).append(" sortDirection=").append(sortDirection);
+            if (sortFallback != null) sb.append(" sortFallback=").append(sortFallback);
+            if (page != null) sb.append(" page=").append(page);
+            sb.append(" perpage=").append(perpage);
+            if (count != null) sb.append(" count=").append(count);
+            if ("cursor".equals(mode)) sb.append(" after=").append(after);
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.yolifay.identityservice.common;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Timer + jumlah baris per query DB (warga.query / warga.query.rows), dengan tag bentuk filter
+ * yang sudah dinormalisasi (tanpa nilai, lihat WargaCriteria#shape) dan slow-query log.
+ */
+@Slf4j
+@Component
+public class QueryMetrics {
+    public static final String NO_FILTER = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+
+    public QueryMetrics(MeterRegistry meterRegistry,
+                        @Value("${warga.query.slow-threshold:200ms}") Duration slowThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    public <T> T record(String query, Supplier<T> call, ToLongFunction<T> rows) {
+        return record(query, NO_FILTER, call, rows);
+    }
+
+    public <T> T record(String query, String filter, Supplier<T> call, ToLongFunction<T> rows) {
+        long started = System.nanoTime();
+        T result = null;
+        boolean success = false;
+        try {
+            result = call.get();
+            success = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            Timer.builder("warga.query")
+                    .tag("query", query)
+                    .tag("filter", filter)
+                    .tag("outcome", success ? "success" : "error")
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            long rowCount = success && result != null ? rows.applyAsLong(result) : 0;
+            if (success) {
+                DistributionSummary.builder("warga.query.rows")
+                        .tag("query", query)
+                        .register(meterRegistry)
+                        .record(rowCount);
+            }
+            if (elapsed >= slowThresholdNanos) {
+                log.warn("[slow-query] query={} filter={} tookMs={} rows={} success={}",
+                        query, filter, elapsed / 1_000_000, rowCount, success);
+            }
+        }
+    }
+}
@@ -1,7 +1,16 @@
 package com.yolifay.identityservice.common;
 
+import java.util.Objects;
+
 public final class ResponseApiUtil {
 
+    // http status yang punya slot di tabel kode; di luar itu kode diformat per panggilan
+    private static final int MAX_STATUS = 600;
+
+    // kode respons hanya bergantung pada (httpStatus, serviceId, RESPONSE) dan service.id tetap sejak
+    // startup: setiap kombinasi diformat sekali lalu dipakai ulang, bukan dirangkai per response
+    private static volatile CodeTable codeTable = new CodeTable(null);
+
     private ResponseApiUtil() {
         throw new IllegalStateException("Utility Class");
     }
@@ -9,10 +18,37 @@ public final class ResponseApiUtil {
     // format code: [HTTP-3digit][SERVICE_ID][CASE_CODE]
     // contoh: 404 + 00001 + A01  => "40400001A01"
     private static String formatCode(int httpStatus, String serviceId, String caseCode) {
-        String http3 = String.format("%03d", httpStatus);
         String svc   = serviceId == null ? "" : serviceId;
         String code  = caseCode == null ? "" : caseCode;
-        return http3 + svc + code;
+        StringBuilder sb = new StringBuilder(3 + svc.length() + code.length());
+        if (httpStatus >= 0 && httpStatus < 100) {
+            sb.append(httpStatus < 10 ? "00" : "0");
+        }
+        return sb.append(httpStatus).append(svc).append(code).toString();
+    }
+
+    /** Kode respons dari tabel (sekali format per kombinasi status + RESPONSE). */
+    static String responseCode(int httpStatus, String serviceId, Constants.RESPONSE response) {
+        if (httpStatus < 0 || httpStatus >= MAX_STATUS) {
+            return formatCode(httpStatus, serviceId, response.getCode());
+        }
+        CodeTable table = codeTable;
+        if (!Objects.equals(table.serviceId, serviceId)) {
+            table = new CodeTable(serviceId);
+            codeTable = table;
+        }
+        String[] byStatus = table.codes[response.ordinal()];
+        if (byStatus == null) {
+            byStatus = new String[MAX_STATUS];
+            table.codes[response.ordinal()] = byStatus;
+        }
+        String code = byStatus[httpStatus];
+        if (code == null) {
+            // race di sini aman: nilai yang ditulis selalu sama dan String immutable (paling buruk diformat dua kali)
+            code = formatCode(httpStatus, serviceId, response.getCode());
+            byStatus[httpStatus] = code;
+        }
+        return code;
     }
 
     /**
@@ -21,11 +57,7 @@ public final class ResponseApiUtil {
     public static <T> ResponseApiService<T> setResponse(
             int httpStatus, String serviceId, Constants.RESPONSE response, T obj) {
 
-        return ResponseApiService.<T>builder()
-                .responseCode(formatCode(httpStatus, serviceId, response.getCode()))
-                .responseDesc(response.getDescription())
-                .data(obj)
-                .build();
+        return new ResponseApiService<>(responseCode(httpStatus, serviceId, response), response.getDescription(), obj);
     }
 
     /**
@@ -34,10 +66,16 @@ public final class ResponseApiUtil {
     public static <T> ResponseApiService<T> setResponse(
             int httpStatus, String serviceId, String caseCode, String description, T obj) {
 
-        return ResponseApiService.<T>builder()
-                .responseCode(formatCode(httpStatus, serviceId, caseCode))
-                .responseDesc(description)
-                .data(obj)
-                .build();
+        return new ResponseApiService<>(formatCode(httpStatus, serviceId, caseCode), description, obj);
+    }
+
+    private static final class CodeTable {
+        private final String serviceId;
+        // baris per RESPONSE dibuat saat pertama dipakai
+        private final String[][] codes = new String[Constants.RESPONSE.values().length][];
+
+        private CodeTable(String serviceId) {
+            this.serviceId = serviceId;
+        }
     }
-}
\ No newline at end of file
+}
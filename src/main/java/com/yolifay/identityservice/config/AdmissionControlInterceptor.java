@@ -0,0 +1,136 @@
+package com.yolifay.identityservice.config;
+
+import com.yolifay.identityservice.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control untuk endpoint warga: maksimal {@code max-concurrent} request (default = ukuran
+ * pool Hikari) boleh berjalan bersamaan. Sisanya antre di semaphore (fair) — murah untuk virtual
+ * thread — bukan di connection-timeout Hikari. Jika tidak kebagian permit dalam
+ * {@code acquire-timeout}, request ditolak 503.
+ *
+ * Permit diambil sekali per request (dispatch REQUEST) dan ditahan sampai request selesai, termasuk
+ * request async: export streaming memegang koneksi DB selama streaming, jadi permit baru dilepas saat
+ * async selesai (complete / error / timeout), bukan saat handler return. Endpoint change feed
+ * (long-poll / SSE) tidak lewat interceptor ini (lihat WebMvcConfig): selama menunggu event tidak
+ * memegang koneksi, dan menahan permit selama itu akan menghabiskan kapasitas endpoint lain.
+ */
+@Slf4j
+@Component
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".PERMIT";
+
+    private final boolean enabled;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public AdmissionControlInterceptor(
+            @Value("${warga.admission.enabled:false}") boolean enabled,
+            @Value("${warga.admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${warga.admission.acquire-timeout:2s}") Duration acquireTimeout,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.acquireTimeout = acquireTimeout;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.waitTimer = Timer.builder("warga.admission.wait").register(meterRegistry);
+        this.rejected = Counter.builder("warga.admission.rejected").register(meterRegistry);
+        Gauge.builder("warga.admission.available", permits, Semaphore::availablePermits).register(meterRegistry);
+        Gauge.builder("warga.admission.queued", permits, Semaphore::getQueueLength).register(meterRegistry);
+        if (enabled) {
+            log.info("[admission] enabled maxConcurrent={} acquireTimeout={}", maxConcurrent, acquireTimeout);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // dispatch ulang request async memakai permit dari dispatch pertama
+        if (!enabled || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        long started = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Server sedang sibuk, silakan coba beberapa saat lagi");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(permits));
+        return true;
+    }
+
+    // request async (mis. export streaming): permit ditahan sampai async selesai, termasuk jika client putus
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            request.getAsyncContext().addListener(permit);
+        }
+    }
+
+    // dipanggil di akhir dispatch sinkron, dan di akhir dispatch ASYNC setelah streaming selesai
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            permit.release();
+        }
+    }
+
+    /** Satu permit milik satu request; release idempotent karena bisa dipanggil dari beberapa jalur. */
+    private static final class Permit implements AsyncListener {
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
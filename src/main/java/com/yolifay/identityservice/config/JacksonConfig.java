@@ -0,0 +1,24 @@
+package com.yolifay.identityservice.config;
+
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Buffer Jackson (BufferRecycler) secara default disimpan per thread. Di virtual thread setiap request
+ * thread-nya baru, jadi buffer tulis JSON dialokasikan ulang tiap response; dengan pool bersama buffer
+ * dipakai ulang antar request.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sharedRecyclerPoolCustomizer() {
+        return builder -> builder.postConfigurer(objectMapper ->
+                objectMapper.getFactory().setRecyclerPool(JsonRecyclerPools.sharedConcurrentDequePool()));
+    }
+}
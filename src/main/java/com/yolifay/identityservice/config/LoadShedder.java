@@ -0,0 +1,143 @@
+package com.yolifay.identityservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load shedding adaptif berdasarkan waktu tunggu koneksi: rata-rata tunggu per interval sampel
+ * (timer hikaricp.connections.acquire, plus warga.admission.wait jika admission control aktif),
+ * dihaluskan dengan EWMA. Di atas {@code wait-threshold} request SEARCH ditolak 503 di depan; di atas
+ * {@code critical-wait-threshold} semua request warga ditolak. Kembali normal setelah di bawah
+ * separuh ambang (histeresis), supaya tidak berkedip di sekitar ambang.
+ *
+ * Tujuannya menolak dalam milidetik saat pool jenuh, bukan membiarkan request menunggu sampai
+ * hikari connection-timeout (30s) lalu gagal juga.
+ */
+@Slf4j
+@Component
+public class LoadShedder {
+    private static final String[] WAIT_TIMERS = { "hikaricp.connections.acquire", "warga.admission.wait" };
+    private static final double SMOOTHING = 0.5;
+
+    static final int NORMAL = 0;
+    static final int SHED_SEARCH = 1;
+    static final int SHED_ALL = 2;
+
+    private final boolean enabled;
+    private final long sampleIntervalNanos;
+    private final long thresholdNanos;
+    private final long criticalNanos;
+    private final MeterRegistry meterRegistry;
+    private final Counter shedSearch;
+    private final Counter shedLookup;
+
+    // hanya ditulis oleh thread scheduler; dibaca thread request
+    private volatile int level = NORMAL;
+    private volatile double smoothedWaitNanos;
+
+    private int lastTimerCount = -1;
+    private long lastCount;
+    private double lastTotalNanos;
+
+    public LoadShedder(
+            @Value("${warga.load-shedding.enabled:true}") boolean enabled,
+            @Value("${warga.load-shedding.sample-interval:250ms}") Duration sampleInterval,
+            @Value("${warga.load-shedding.wait-threshold:500ms}") Duration threshold,
+            @Value("${warga.load-shedding.critical-wait-threshold:2s}") Duration criticalThreshold,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.sampleIntervalNanos = sampleInterval.toNanos();
+        this.thresholdNanos = threshold.toNanos();
+        this.criticalNanos = criticalThreshold.toNanos();
+        this.meterRegistry = meterRegistry;
+        this.shedSearch = Counter.builder("warga.load-shedding.rejected").tag("cost", "search").register(meterRegistry);
+        this.shedLookup = Counter.builder("warga.load-shedding.rejected").tag("cost", "lookup").register(meterRegistry);
+        Gauge.builder("warga.load-shedding.level", this, s -> s.level).register(meterRegistry);
+        Gauge.builder("warga.load-shedding.pool-wait", this, s -> s.smoothedWaitNanos)
+                .baseUnit("nanoseconds").register(meterRegistry);
+        if (enabled) {
+            log.info("[load-shedding] enabled threshold={} critical={}", threshold, criticalThreshold);
+        }
+    }
+
+    /** true jika request dengan biaya ini harus ditolak sekarang. */
+    public boolean shouldShed(RequestCost cost) {
+        int current = level;
+        if (current == NORMAL) {
+            return false;
+        }
+        if (current == SHED_ALL || cost == RequestCost.SEARCH) {
+            (cost == RequestCost.SEARCH ? shedSearch : shedLookup).increment();
+            return true;
+        }
+        return false;
+    }
+
+    @Scheduled(fixedRateString = "${warga.load-shedding.sample-interval:250ms}")
+    public void sample() {
+        if (!enabled) {
+            return;
+        }
+        long count = 0;
+        double totalNanos = 0;
+        int timerCount = 0;
+        for (String name : WAIT_TIMERS) {
+            for (Timer timer : meterRegistry.find(name).timers()) {
+                count += timer.count();
+                totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+                timerCount++;
+            }
+        }
+        double pending = meterRegistry.find("hikaricp.connections.pending").gauges().stream()
+                .mapToDouble(Gauge::value).sum();
+
+        // pool baru terdaftar (mis. saat koneksi pertama): riwayatnya bukan bagian interval ini
+        boolean comparable = timerCount > 0 && timerCount == lastTimerCount;
+        long deltaCount = count - lastCount;
+        double deltaNanos = totalNanos - lastTotalNanos;
+        lastTimerCount = timerCount;
+        lastCount = count;
+        lastTotalNanos = totalNanos;
+        if (!comparable) {
+            return;
+        }
+
+        double waitNanos;
+        if (deltaCount > 0) {
+            waitNanos = deltaNanos / deltaCount;
+        } else {
+            // tidak ada yang dapat koneksi selama satu interval padahal ada yang antre: tunggu minimal selama interval
+            waitNanos = pending > 0 ? sampleIntervalNanos : 0;
+        }
+        double smoothed = SMOOTHING * waitNanos + (1 - SMOOTHING) * smoothedWaitNanos;
+        smoothedWaitNanos = smoothed;
+
+        int previous = level;
+        int next;
+        if (smoothed >= criticalNanos || (previous == SHED_ALL && smoothed >= criticalNanos / 2.0)) {
+            next = SHED_ALL;
+        } else if (smoothed >= thresholdNanos || (previous >= SHED_SEARCH && smoothed >= thresholdNanos / 2.0)) {
+            next = SHED_SEARCH;
+        } else {
+            next = NORMAL;
+        }
+        if (next != previous) {
+            level = next;
+            long waitMs = (long) (smoothed / 1_000_000);
+            if (next > previous) {
+                log.warn("[load-shedding] level {} -> {} poolWaitMs={} pending={}", previous, next, waitMs, (long) pending);
+            } else {
+                log.info("[load-shedding] level {} -> {} poolWaitMs={}", previous, next, waitMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.yolifay.identityservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yolifay.identityservice.exception.ServiceUnavailableException;
+import com.yolifay.identityservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerbang depan endpoint warga, dijalankan sebelum admission control:
+ * <ol>
+ *   <li>load shedding ({@link LoadShedder}): pool DB jenuh -> 503 + Retry-After tanpa menyentuh DB;</li>
+ *   <li>rate limit per alamat IP client dengan token bucket terpisah untuk
+ *       {@link RequestCost#LOOKUP} dan {@link RequestCost#SEARCH} -> 429 + Retry-After.</li>
+ * </ol>
+ * Sengaja bukan X-Client-ID: header itu tidak diautentikasi, jadi client bisa mendapat bucket baru
+ * di setiap request hanya dengan mengganti nilainya. Di belakang reverse proxy, aktifkan
+ * {@code server.forward-headers-strategy} supaya alamat remote adalah alamat client, bukan proxy.
+ * Token bucket memakai GCRA: state satu bucket hanya satu AtomicLong (waktu kedatangan teoretis
+ * berikutnya) yang dimajukan dengan CAS, jadi tanpa lock dan tanpa thread refill.
+ */
+@Slf4j
+@Component
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+    private final LoadShedder loadShedder;
+    private final boolean enabled;
+    private final Bucket lookup;
+    private final Bucket search;
+
+    public RateLimitInterceptor(
+            LoadShedder loadShedder,
+            @Value("${warga.rate-limit.enabled:false}") boolean enabled,
+            @Value("${warga.rate-limit.lookup.per-second:100}") double lookupPerSecond,
+            @Value("${warga.rate-limit.lookup.burst:200}") int lookupBurst,
+            @Value("${warga.rate-limit.search.per-second:5}") double searchPerSecond,
+            @Value("${warga.rate-limit.search.burst:20}") int searchBurst,
+            @Value("${warga.rate-limit.max-clients:100000}") long maxClients,
+            MeterRegistry meterRegistry) {
+        this.loadShedder = loadShedder;
+        this.enabled = enabled;
+        this.lookup = new Bucket("lookup", lookupPerSecond, lookupBurst, maxClients, meterRegistry);
+        this.search = new Bucket("search", searchPerSecond, searchBurst, maxClients, meterRegistry);
+        if (enabled) {
+            log.info("[rate-limit] enabled lookup={}/s burst={} search={}/s burst={}",
+                    lookupPerSecond, lookupBurst, searchPerSecond, searchBurst);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // dispatch ulang request async (export, long-poll) sudah diperiksa saat dispatch pertama
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        RequestCost cost = RequestCost.of(request);
+        if (loadShedder.shouldShed(cost)) {
+            throw new ServiceUnavailableException("Server sedang sibuk, silakan coba beberapa saat lagi", Duration.ofSeconds(1));
+        }
+        if (!enabled) {
+            return true;
+        }
+        Bucket bucket = cost == RequestCost.SEARCH ? search : lookup;
+        long waitNanos = bucket.tryAcquire(request.getRemoteAddr(), System.nanoTime());
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException("Terlalu banyak request, silakan coba beberapa saat lagi",
+                    Duration.ofNanos(waitNanos));
+        }
+        return true;
+    }
+
+    /** Token bucket per client untuk satu kelas biaya; konfigurasi dibagi, state per client satu AtomicLong. */
+    static final class Bucket {
+        private final long emissionNanos;   // jarak antar token = 1 / rate
+        private final long toleranceNanos;  // emission * burst: berapa jauh client boleh "mendahului" jadwal
+        private final Cache<String, AtomicLong> clients;
+        private final Counter rejected;
+
+        Bucket(String name, double perSecond, int burst, long maxClients, MeterRegistry meterRegistry) {
+            if (perSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("warga.rate-limit." + name + ": per-second harus > 0 dan burst >= 1");
+            }
+            this.emissionNanos = (long) (1_000_000_000L / perSecond);
+            this.toleranceNanos = emissionNanos * burst;
+            // bucket yang tidak dipakai lebih lama dari waktu isi penuhnya setara bucket baru: aman dibuang
+            Duration refill = Duration.ofNanos(toleranceNanos);
+            this.clients = Caffeine.newBuilder()
+                    .expireAfterAccess(refill.compareTo(Duration.ofMinutes(1)) > 0 ? refill : Duration.ofMinutes(1))
+                    .maximumSize(maxClients)
+                    .build();
+            this.rejected = Counter.builder("warga.rate-limit.rejected").tag("cost", name).register(meterRegistry);
+        }
+
+        /** 0 jika token diambil; selain itu sisa waktu (nanos) sampai token berikutnya tersedia. */
+        long tryAcquire(String client, long now) {
+            // Long.MIN_VALUE: client baru, bucket penuh
+            AtomicLong theoreticalArrival = clients.get(client, k -> new AtomicLong(Long.MIN_VALUE));
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + emissionNanos;
+                long waitNanos = next - toleranceNanos - now;
+                if (waitNanos > 0) {
+                    rejected.increment();
+                    return waitNanos;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
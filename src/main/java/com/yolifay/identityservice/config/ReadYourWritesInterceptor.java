@@ -0,0 +1,85 @@
+package com.yolifay.identityservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes: client yang baru saja menulis (POST/PUT/PATCH/DELETE sukses, kecuali POST yang
+ * hanya membaca) dibaca dari primary selama {@code read-your-writes-window}, supaya tidak melihat data
+ * lama dari replica yang tertinggal.
+ * Client dikenali dari header X-Client-ID, fallback ke alamat IP.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "warga.datasource.replica.enabled", havingValue = "true")
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+    public static final String CLIENT_ID_HEADER = "X-Client-ID";
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    // POST yang hanya membaca (body dipakai karena daftar NIK terlalu panjang untuk query string)
+    private static final Set<String> READ_ONLY_HANDLERS = Set.of("POST /warga/by-nik/batch");
+
+    private final Cache<String, Boolean> recentWriters;
+    private final Counter pinned;
+
+    public ReadYourWritesInterceptor(
+            @Value("${warga.datasource.replica.read-your-writes-window:5s}") Duration window,
+            @Value("${warga.datasource.replica.read-your-writes-max-clients:100000}") long maxClients,
+            MeterRegistry meterRegistry) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxClients)
+                .build();
+        this.pinned = Counter.builder("warga.datasource.read-your-writes.pinned").register(meterRegistry);
+        log.info("[datasource] read-your-writes window={}", window);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (recentWriters.getIfPresent(clientKey(request)) != null) {
+            pinned.increment();
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        return true;
+    }
+
+    // request async (mis. export streaming): thread request dilepas, pin ikut dilepas
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRoutingDataSource.unpin();
+        if (ex == null && response.getStatus() < 400 && isWrite(request)) {
+            recentWriters.put(clientKey(request), Boolean.TRUE);
+        }
+    }
+
+    // berdasarkan pola mapping handler seperti RequestCost.of, bukan URI mentah
+    private static boolean isWrite(HttpServletRequest request) {
+        if (!WRITE_METHODS.contains(request.getMethod())) {
+            return false;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return !READ_ONLY_HANDLERS.contains(request.getMethod() + " " + pattern);
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? "id:" + clientId : "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,68 @@
+package com.yolifay.identityservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Transaksi {@code readOnly = true} ke replica, selain itu (write, tanpa transaksi) ke primary.
+ * Harus dibungkus LazyConnectionDataSourceProxy: flag read-only transaksi baru terpasang setelah
+ * transaction manager meminta koneksi, jadi koneksi fisik baru boleh dipilih di statement pertama.
+ * Thread bisa di-pin ke primary (read-your-writes, atau data yang akan di-cache lama).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryRoutes = Counter.builder("warga.datasource.routes").tag("target", "primary").register(meterRegistry);
+        this.replicaRoutes = Counter.builder("warga.datasource.routes").tag("target", "replica").register(meterRegistry);
+    }
+
+    /** Jalankan {@code call} dengan semua koneksi baru diambil dari primary. */
+    public static <T> T onPrimary(Supplier<T> call) {
+        if (Boolean.TRUE.equals(PINNED_TO_PRIMARY.get())) {
+            return call.get();
+        }
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        try {
+            return call.get();
+        } finally {
+            PINNED_TO_PRIMARY.remove();
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+    }
+
+    static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !Boolean.TRUE.equals(PINNED_TO_PRIMARY.get())) {
+            replicaRoutes.increment();
+            return Target.REPLICA;
+        }
+        primaryRoutes.increment();
+        return Target.PRIMARY;
+    }
+}
@@ -0,0 +1,33 @@
+package com.yolifay.identityservice.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Set;
+
+/**
+ * Kelas biaya request warga untuk rate limiting dan load shedding. SEARCH = endpoint yang memindai
+ * banyak baris atau menahan koneksi lama (list, cursor, export, import, batch, bulk delete);
+ * sisanya LOOKUP (by-nik, stats, tulis satu data, change feed).
+ */
+public enum RequestCost {
+    LOOKUP,
+    SEARCH;
+
+    private static final Set<String> SEARCH_HANDLERS = Set.of(
+            "GET /warga",
+            "GET /warga/cursor",
+            "GET /warga/export",
+            "POST /warga/import",
+            "POST /warga/batch",
+            "POST /warga/bulk-delete");
+
+    /** Berdasarkan pola mapping handler (bukan URI mentah), jadi path variable tidak berpengaruh. */
+    public static RequestCost of(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return LOOKUP;
+        }
+        return SEARCH_HANDLERS.contains(request.getMethod() + " " + pattern) ? SEARCH : LOOKUP;
+    }
+}
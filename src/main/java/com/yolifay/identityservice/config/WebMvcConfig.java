@@ -0,0 +1,27 @@
+package com.yolifay.identityservice.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    // hanya ada jika read replica aktif
+    private final ObjectProvider<ReadYourWritesInterceptor> readYourWritesInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // rate limit / load shedding dulu: request yang ditolak tidak ikut antre di admission control
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/warga/**", "/warga");
+        // change feed (long-poll / SSE) menunggu tanpa koneksi DB: tidak ikut admission control
+        registry.addInterceptor(admissionControlInterceptor).addPathPatterns("/warga/**", "/warga")
+                .excludePathPatterns("/warga/changes", "/warga/changes/stream");
+        readYourWritesInterceptor.ifAvailable(interceptor ->
+                registry.addInterceptor(interceptor).addPathPatterns("/warga/**", "/warga"));
+    }
+}
@@ -4,24 +4,48 @@ import com.yolifay.identityservice.common.Constants;
 import com.yolifay.identityservice.common.ConstantsProperties;
 import com.yolifay.identityservice.common.ResponseApiService;
 import com.yolifay.identityservice.common.ResponseApiUtil;
+import com.yolifay.identityservice.dto.WargaBatchCreateResponse;
+import com.yolifay.identityservice.dto.WargaBulkDeleteRequest;
+import com.yolifay.identityservice.dto.WargaBulkDeleteResponse;
+import com.yolifay.identityservice.dto.WargaChangeFeedResponse;
 import com.yolifay.identityservice.dto.WargaCreateRequest;
+import com.yolifay.identityservice.dto.WargaImportSummary;
+import com.yolifay.identityservice.dto.WargaNikBatchRequest;
+import com.yolifay.identityservice.dto.WargaNikBatchResponse;
 import com.yolifay.identityservice.dto.WargaResponse;
+import com.yolifay.identityservice.dto.WargaStatsResponse;
+import com.yolifay.identityservice.dto.WargaUpdateRequest;
 import com.yolifay.identityservice.dto.filter.WargaFilter;
 import com.yolifay.identityservice.dto.pagination.BasePaging;
+import com.yolifay.identityservice.dto.pagination.CountStrategy;
+import com.yolifay.identityservice.dto.pagination.CursorEnvelope;
+import com.yolifay.identityservice.dto.pagination.CursorPaging;
+import com.yolifay.identityservice.dto.pagination.ListWargaCursorRequest;
 import com.yolifay.identityservice.dto.pagination.ListWargaRequest;
 import com.yolifay.identityservice.dto.pagination.PageEnvelope;
+import com.yolifay.identityservice.service.WargaChangeFeedService;
+import com.yolifay.identityservice.service.WargaExportService;
+import com.yolifay.identityservice.service.WargaImportService;
 import com.yolifay.identityservice.service.WargaService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -30,6 +54,9 @@ import java.util.List;
 @Validated
 public class WargaController {
     private final WargaService wargaService;
+    private final WargaExportService wargaExportService;
+    private final WargaImportService wargaImportService;
+    private final WargaChangeFeedService wargaChangeFeedService;
     private final ConstantsProperties constantsProperties;
 
     @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -48,6 +75,41 @@ public class WargaController {
         );
     }
 
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResponseApiService<WargaBatchCreateResponse>> createWargaBatch(
+            @RequestBody List<WargaCreateRequest> req) {
+        // validasi dilakukan per item di service supaya satu item invalid tidak menggagalkan batch
+        log.info("Incoming create warga batch: size={}", req.size());
+        WargaBatchCreateResponse res = wargaService.createWargaBatch(req);
+
+        log.info("Outgoing Warga batch created={} conflict={} invalid={}", res.created(), res.conflict(), res.invalid());
+        return ResponseEntity.status(HttpStatus.OK).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.OK.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.APPROVED,
+                        res
+                )
+        );
+    }
+
+    @PostMapping(value = "/import", produces = MediaType.APPLICATION_JSON_VALUE, consumes = "text/csv")
+    public ResponseEntity<ResponseApiService<WargaImportSummary>> importWarga(InputStream csv) {
+        // body dibaca langsung dari request stream ke COPY, tidak ditampung di memori
+        log.info("Incoming import warga csv");
+        WargaImportSummary res = wargaImportService.importCsv(csv);
+
+        log.info("Outgoing Warga import inserted={} updated={} rejected={}", res.inserted(), res.updated(), res.rejected());
+        return ResponseEntity.status(HttpStatus.OK).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.OK.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.APPROVED,
+                        res
+                )
+        );
+    }
+
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ResponseApiService<PageEnvelope<WargaResponse>>> getAllWarga(
             @RequestParam (required = false) Integer page,
@@ -56,11 +118,19 @@ public class WargaController {
             @RequestParam (required = false, name = "sortDirection") String sortDirection,
             @RequestParam (required = false, name = "q") String q,
             @RequestParam (required = false, name = "rt") Integer rt,
-            @RequestParam (required = false, name = "rw") Integer rw
+            @RequestParam (required = false, name = "rw") Integer rw,
+            @RequestParam (required = false, name = "count") String count,
+            WebRequest webRequest
     ) {
-        log.info("Incoming get all warga");
+        // Conditional GET: 304 tanpa query list maupun serialisasi envelope jika tabel belum berubah.
+        // Hanya ETag: changed_at marker adalah waktu mulai transaksi, bukan waktu commit, jadi
+        // If-Modified-Since bisa menganggap write yang commit belakangan sudah terlihat
+        if (isNotModified(webRequest)) {
+            return null;
+        }
+
         // Simpan raw parameters into BasePaging
-        var paging = new BasePaging(page, perPage, sortField, sortDirection, q);
+        var paging = new BasePaging(page, perPage, sortField, sortDirection, q, CountStrategy.from(count));
 
         // Create filter object
         WargaFilter wargaFilter = new WargaFilter();
@@ -70,10 +140,40 @@ public class WargaController {
         var req = new ListWargaRequest(paging, wargaFilter);
         var resp = wargaService.getAllWarga(req);
 
-        log.info("Outgoing All Warga data page={} size={} totalElements={}",
-                resp.page(), resp.size(), resp.totalElements());
+        return ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache()).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.OK.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.APPROVED,
+                        resp
+                )
+        );
+    }
 
-        return ResponseEntity.status(HttpStatus.OK).body(
+    @GetMapping(value = "/cursor", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResponseApiService<CursorEnvelope<WargaResponse>>> getAllWargaCursor(
+            @RequestParam (required = false, name = "perpage") Integer perPage,
+            @RequestParam (required = false, name = "sortField") String sortField,
+            @RequestParam (required = false, name = "sortDirection") String sortDirection,
+            @RequestParam (required = false, name = "q") String q,
+            @RequestParam (required = false, name = "rt") Integer rt,
+            @RequestParam (required = false, name = "rw") Integer rw,
+            @RequestParam (required = false, name = "after") String after,
+            WebRequest webRequest
+    ) {
+        if (isNotModified(webRequest)) {
+            return null;
+        }
+
+        var paging = new CursorPaging(perPage, sortField, sortDirection, q, after);
+
+        WargaFilter wargaFilter = new WargaFilter();
+        wargaFilter.setRt(rt);
+        wargaFilter.setRw(rw);
+
+        var resp = wargaService.getAllWargaCursor(new ListWargaCursorRequest(paging, wargaFilter));
+
+        return ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache()).body(
                 ResponseApiUtil.setResponse(
                         HttpStatus.OK.value(),
                         constantsProperties.getServiceId(),
@@ -83,13 +183,108 @@ public class WargaController {
         );
     }
 
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResponseApiService<WargaStatsResponse>> getStats() {
+        // dari aggregate in-memory, bukan GROUP BY per request
+        WargaStatsResponse res = wargaService.getStats();
+
+        return ResponseEntity.status(HttpStatus.OK).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.OK.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.APPROVED,
+                        res
+                )
+        );
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<ResponseApiService<WargaChangeFeedResponse>>> getChanges(
+            @RequestParam (required = false, name = "since") Long since,
+            @RequestParam (required = false, name = "limit") Integer limit,
+            @RequestParam (required = false, name = "wait") Integer waitSeconds,
+            @RequestParam (required = false, name = "consumer") String consumer
+    ) {
+        // long-poll: request async, menunggu di virtual thread sampai ada perubahan atau wait habis
+        Duration wait = waitSeconds == null ? null : Duration.ofSeconds(waitSeconds);
+        return wargaChangeFeedService.poll(since, limit, wait, consumer).thenApply(res ->
+                ResponseEntity.status(HttpStatus.OK).body(
+                        ResponseApiUtil.setResponse(
+                                HttpStatus.OK.value(),
+                                constantsProperties.getServiceId(),
+                                Constants.RESPONSE.APPROVED,
+                                res
+                        )
+                ));
+    }
+
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam (required = false, name = "since") Long since,
+            @RequestHeader (required = false, name = "Last-Event-ID") Long lastEventId,
+            @RequestParam (required = false, name = "consumer") String consumer
+    ) {
+        // reconnect EventSource mengirim Last-Event-ID = seq terakhir yang diterima
+        log.info("Incoming stream warga changes since={} lastEventId={} consumer={}", since, lastEventId, consumer);
+        return wargaChangeFeedService.subscribe(lastEventId != null ? lastEventId : since, consumer);
+    }
+
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> exportWarga(
+            @RequestParam (required = false, name = "q") String q,
+            @RequestParam (required = false, name = "rt") Integer rt,
+            @RequestParam (required = false, name = "rw") Integer rw,
+            @RequestParam (required = false, name = "format") String format
+    ) {
+        log.info("Incoming export warga format={}", format);
+        WargaExportService.Format exportFormat = WargaExportService.Format.from(format);
+
+        WargaFilter wargaFilter = new WargaFilter();
+        wargaFilter.setRt(rt);
+        wargaFilter.setRw(rw);
+
+        // ditulis langsung ke response di thread async; memori konstan berapapun jumlah baris
+        StreamingResponseBody body = out -> wargaExportService.export(q, wargaFilter, exportFormat, out);
+
+        log.info("Outgoing export warga streaming format={}", exportFormat);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"warga." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping(value = "/by-nik/{nik}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ResponseApiService<WargaResponse>> getWargaByNik(
-            @PathVariable @Pattern(regexp = "\\d{16}", message = "NIK harus 16 digit") String nik) {
+            @PathVariable @Pattern(regexp = "\\d{16}", message = "NIK harus 16 digit") String nik,
+            WebRequest webRequest) {
         log.info("Incoming get warga by NIK: {}", nik);
         WargaResponse res = wargaService.getWargaByNik(nik);
 
+        // ETag id-version + Last-Modified dari record (biasanya dari lookup cache, tanpa DB)
+        long lastModified = res.lastModified() == null ? -1 : res.lastModified().toEpochMilli();
+        if (webRequest.checkNotModified(res.etag(), lastModified)) {
+            log.info("Outgoing Warga not modified by NIK: {}", nik);
+            return null;
+        }
+
         log.info("Outgoing Warga found by NIK: {}", nik);
+        return ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache()).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.OK.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.APPROVED,
+                        res
+                )
+        );
+    }
+
+    @PostMapping(value = "/by-nik/batch", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResponseApiService<WargaNikBatchResponse>> getWargaByNiks(
+            @RequestBody @Valid WargaNikBatchRequest req) {
+        log.info("Incoming get warga by NIK batch: size={}", req.niks().size());
+        WargaNikBatchResponse res = wargaService.getWargaByNiks(req);
+
+        log.info("Outgoing Warga by NIK batch found={} missing={}", res.found().size(), res.missing().size());
         return ResponseEntity.status(HttpStatus.OK).body(
                 ResponseApiUtil.setResponse(
                         HttpStatus.OK.value(),
@@ -118,6 +313,41 @@ public class WargaController {
         );
     }
 
+    @PatchMapping(value = "/{nik}", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResponseApiService<WargaResponse>> patchWarga(
+            @PathVariable("nik") String nik,
+            @RequestBody @Valid WargaUpdateRequest req) {
+        log.info("Incoming patch warga by NIK: {}", nik);
+        WargaResponse res = wargaService.patchWarga(nik, req);
+
+        log.info("Outgoing Warga patched by NIK: {}", nik);
+        return ResponseEntity.status(HttpStatus.OK).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.OK.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.APPROVED,
+                        res
+                )
+        );
+    }
+
+    @PostMapping(value = "/bulk-delete", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResponseApiService<WargaBulkDeleteResponse>> bulkDeleteWarga(
+            @RequestBody WargaBulkDeleteRequest req) {
+        log.info("Incoming bulk delete warga");
+        WargaBulkDeleteResponse res = wargaService.bulkDeleteWarga(req);
+
+        log.info("Outgoing Warga bulk deleted={} chunks={}", res.deleted(), res.chunks());
+        return ResponseEntity.status(HttpStatus.OK).body(
+                ResponseApiUtil.setResponse(
+                        HttpStatus.OK.value(),
+                        constantsProperties.getServiceId(),
+                        Constants.RESPONSE.APPROVED,
+                        res
+                )
+        );
+    }
+
     @DeleteMapping("/{nik}")
     public ResponseEntity<ResponseApiService<String>> deleteWarga(@PathVariable("nik") String nik) {
         log.info("Incoming delete warga by NIK: {}", nik);
@@ -133,4 +363,11 @@ public class WargaController {
                 )
         );
     }
+
+    // tanpa marker (tabel belum dimigrasi) list selalu dilayani penuh
+    private boolean isNotModified(WebRequest webRequest) {
+        return wargaService.getChangeMarker()
+                .map(marker -> webRequest.checkNotModified(marker.etag()))
+                .orElse(false);
+    }
 }
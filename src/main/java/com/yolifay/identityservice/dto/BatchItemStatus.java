@@ -0,0 +1,7 @@
+package com.yolifay.identityservice.dto;
+
+public enum BatchItemStatus {
+    CREATED,
+    CONFLICT,
+    INVALID
+}
@@ -0,0 +1,12 @@
+package com.yolifay.identityservice.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public record WargaBatchCreateResponse(
+        int total,
+        int created,
+        int conflict,
+        int invalid,
+        List<WargaBatchItemResult> items
+) implements Serializable {}
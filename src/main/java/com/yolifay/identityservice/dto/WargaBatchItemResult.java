@@ -0,0 +1,11 @@
+package com.yolifay.identityservice.dto;
+
+import java.io.Serializable;
+
+public record WargaBatchItemResult(
+        int index,               // posisi item pada request (0-based)
+        String nik,
+        BatchItemStatus status,
+        String message,          // alasan CONFLICT / INVALID; null jika CREATED
+        WargaResponse data       // hanya untuk CREATED
+) implements Serializable {}
@@ -0,0 +1,13 @@
+package com.yolifay.identityservice.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Body POST /warga/bulk-delete: isi salah satu, daftar niks ATAU rt / rw (boleh keduanya rt dan rw).
+ */
+public record WargaBulkDeleteRequest(
+        List<String> niks,
+        Integer rt,
+        Integer rw
+) implements Serializable {}
@@ -0,0 +1,11 @@
+package com.yolifay.identityservice.dto;
+
+import java.io.Serializable;
+
+public record WargaBulkDeleteResponse(
+        String mode,              // niks|filter
+        long deleted,
+        Long notFound,            // hanya mode niks: NIK yang tidak ada
+        int chunks,               // jumlah statement DELETE (masing-masing transaksi sendiri)
+        long tookMs
+) implements Serializable {}
@@ -0,0 +1,19 @@
+package com.yolifay.identityservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Satu perubahan warga dari outbox. before / after adalah snapshot JSON (field sama dengan
+ * WargaResponse) apa adanya dari DB: null untuk before pada INSERT dan after pada DELETE.
+ */
+public record WargaChangeEvent(
+        long seq,
+        String op,                // INSERT|UPDATE|DELETE
+        String nik,
+        @JsonRawValue String before,
+        @JsonRawValue String after,
+        Instant changedAt
+) implements Serializable {}
@@ -0,0 +1,10 @@
+package com.yolifay.identityservice.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public record WargaChangeFeedResponse(
+        List<WargaChangeEvent> changes,
+        long nextSince,           // kirim sebagai since di request berikutnya
+        boolean hasMore           // true = masih ada perubahan lain, langsung ambil lagi tanpa menunggu
+) implements Serializable {}
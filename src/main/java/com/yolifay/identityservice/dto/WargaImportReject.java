@@ -0,0 +1,9 @@
+package com.yolifay.identityservice.dto;
+
+import java.io.Serializable;
+
+public record WargaImportReject(
+        long row,       // nomor baris data pada CSV (1-based, tanpa header)
+        String nik,
+        String reason
+) implements Serializable {}
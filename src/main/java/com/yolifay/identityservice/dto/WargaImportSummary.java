@@ -0,0 +1,14 @@
+package com.yolifay.identityservice.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public record WargaImportSummary(
+        long received,
+        long inserted,
+        long updated,
+        long rejected,
+        long tookMs,
+        long rowsPerSecond,
+        List<WargaImportReject> rejects   // contoh baris yang ditolak (dibatasi)
+) implements Serializable {}
@@ -0,0 +1,14 @@
+package com.yolifay.identityservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import java.io.Serializable;
+import java.util.List;
+
+/** Body POST /warga/by-nik/batch; jumlah maksimal NIK dicek di service (warga.lookup-batch.max-size). */
+public record WargaNikBatchRequest(
+        @NotEmpty(message = "tidak boleh kosong")
+        List<@NotNull(message = "wajib diisi") @Pattern(regexp = "\\d{16}", message = "NIK harus 16 digit") String> niks
+) implements Serializable {}
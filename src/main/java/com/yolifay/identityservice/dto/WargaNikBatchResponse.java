@@ -0,0 +1,10 @@
+package com.yolifay.identityservice.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+public record WargaNikBatchResponse(
+        Map<String, WargaResponse> found,   // key = NIK, urut sesuai request
+        List<String> missing
+) implements Serializable {}
@@ -1,8 +1,10 @@
 package com.yolifay.identityservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 
 import java.io.Serializable;
+import java.time.Instant;
 
 @Builder
 public record WargaResponse(
@@ -12,5 +14,13 @@ public record WargaResponse(
         String phoneNumber,
         String alamat,
         Integer rt,
-        Integer rw
-) implements Serializable {}
\ No newline at end of file
+        Integer rw,
+        Long version,             // kirim kembali di PATCH untuk optimistic locking
+        @JsonIgnore Instant lastModified   // updatedAt, atau createdAt jika belum pernah diubah; header Last-Modified
+) implements Serializable {
+
+    /** ETag kuat satu record: id ikut supaya NIK yang dihapus lalu dibuat ulang (version 0 lagi) tidak bentrok. */
+    public String etag() {
+        return "\"" + id + "-" + version + "\"";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.yolifay.identityservice.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Jumlah warga per RW lalu per RT. rw / rt null = warga yang belum punya RW / RT (selalu di urutan terakhir).
+ */
+public record WargaStatsResponse(
+        long total,
+        List<RwStats> rw,
+        Instant reconciledAt      // terakhir dicocokkan dengan GROUP BY ke DB
+) implements Serializable {
+
+    public record RwStats(Integer rw, long total, List<RtStats> rt) implements Serializable {}
+
+    public record RtStats(Integer rt, long total) implements Serializable {}
+}
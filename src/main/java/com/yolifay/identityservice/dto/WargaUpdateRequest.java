@@ -3,10 +3,20 @@ package com.yolifay.identityservice.dto;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 
+/**
+ * Body PATCH /warga/{nik}: field null / tidak dikirim = tidak diubah.
+ * version wajib, diambil dari response GET / PUT / PATCH sebelumnya.
+ */
 public record WargaUpdateRequest(
-        @NotBlank String nama,
-        @NotBlank @Size(min=10,max=15) String phoneNumber,
+        @Pattern(regexp = ".*\\S.*", message = "tidak boleh kosong") String nama,
+        @Pattern(regexp = ".*\\S.*", message = "tidak boleh kosong") @Size(min=10,max=15) String phoneNumber,
         String alamat,
         @Min(1) @Max(999) Integer rt,
-        @Min(1) @Max(999) Integer rw
-) implements Serializable {}
+        @Min(1) @Max(999) Integer rw,
+        @NotNull(message = "wajib diisi") Long version
+) implements Serializable {
+
+    public boolean hasChanges() {
+        return nama != null || phoneNumber != null || alamat != null || rt != null || rw != null;
+    }
+}
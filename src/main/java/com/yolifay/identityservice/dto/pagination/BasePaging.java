@@ -7,7 +7,8 @@ public record BasePaging(
         Integer perpage,       // size
         String sortField,      // e.g. "id"
         String sortDirection,  // "asc"|"desc"
-        String q               // free text
+        String q,              // free text
+        CountStrategy count    // exact|estimated|none
 ) {
     public BasePaging {
         if (page == null || page < 1) page = 1;
@@ -15,8 +16,12 @@ public record BasePaging(
         if (perpage > 200) perpage = 200;
         if (sortField == null || sortField.isBlank()) sortField = "id";
         if (!"desc".equalsIgnoreCase(sortDirection)) sortDirection = "asc";
+        if (count == null) count = CountStrategy.EXACT;
     }
 
     @JsonIgnore
     public int pageIndex() { return page - 1; } // to Pageable (0-based)
+
+    @JsonIgnore
+    public long offset() { return (long) pageIndex() * perpage; }
 }
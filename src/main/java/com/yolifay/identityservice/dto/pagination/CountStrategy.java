@@ -0,0 +1,23 @@
+package com.yolifay.identityservice.dto.pagination;
+
+/**
+ * Cara mengisi total pada list warga.
+ * EXACT     : COUNT(*) (di-cache singkat per filter)
+ * ESTIMATED : estimasi planner PostgreSQL / pg_class.reltuples
+ * NONE      : tanpa total, hanya hasNext (Slice)
+ */
+public enum CountStrategy {
+    EXACT,
+    ESTIMATED,
+    NONE;
+
+    /** Default EXACT untuk nilai kosong / tidak dikenal. */
+    public static CountStrategy from(String value) {
+        if (value == null || value.isBlank()) return EXACT;
+        return switch (value.trim().toLowerCase()) {
+            case "estimated" -> ESTIMATED;
+            case "none"      -> NONE;
+            default          -> EXACT;
+        };
+    }
+}
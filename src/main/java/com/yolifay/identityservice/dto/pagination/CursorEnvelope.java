@@ -0,0 +1,26 @@
+package com.yolifay.identityservice.dto.pagination;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+
+@JsonPropertyOrder({ "content", "size", "numberOfElements", "hasNext", "nextCursor", "sortMeta" })
+public record CursorEnvelope<T>(
+        List<T> content,
+        int size,                 // jumlah item per halaman
+        int numberOfElements,     // jumlah item aktual pada halaman ini
+        boolean hasNext,          // true jika masih ada data setelah halaman ini
+        String nextCursor,        // kirim sebagai "after" untuk halaman berikutnya; null jika tidak ada
+        SortMeta sortMeta
+) {
+    public static <T> CursorEnvelope<T> of(CursorPaging paging, List<T> content, String nextCursor, SortMeta sort) {
+        return new CursorEnvelope<>(
+                content,
+                paging.perpage(),
+                content != null ? content.size() : 0,
+                nextCursor != null,
+                nextCursor,
+                sort
+        );
+    }
+}
@@ -0,0 +1,16 @@
+package com.yolifay.identityservice.dto.pagination;
+
+public record CursorPaging(
+        Integer perpage,       // size
+        String sortField,      // e.g. "nama"
+        String sortDirection,  // "asc"|"desc"
+        String q,              // free text
+        String after           // cursor opaque dari halaman sebelumnya; null untuk halaman pertama
+) {
+    public CursorPaging {
+        if (perpage == null || perpage < 1) perpage = 10;
+        if (perpage > 200) perpage = 200;
+        if (!"desc".equalsIgnoreCase(sortDirection)) sortDirection = "asc";
+        if (after != null && after.isBlank()) after = null;
+    }
+}
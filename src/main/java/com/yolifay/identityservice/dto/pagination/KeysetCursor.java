@@ -0,0 +1,61 @@
+package com.yolifay.identityservice.dto.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posisi baris terakhir pada pagination keyset: nilai kolom sort + id sebagai tie-breaker.
+ * Di-encode ke token base64url yang opaque bagi client.
+ */
+public record KeysetCursor(
+        String sortField,
+        String direction,  // "asc"|"desc"
+        Object value,      // String | Integer | Instant | null
+        UUID id
+) {
+    private static final char SEP = '|';
+
+    public String encode() {
+        String raw = sortField + SEP + direction + SEP + id + SEP + encodeValue(value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException jika token rusak / bukan hasil {@link #encode()}
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // nilai sort selalu di posisi terakhir sehingga boleh mengandung separator
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new KeysetCursor(parts[0], parts[1], decodeValue(parts[3]), UUID.fromString(parts[2]));
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    private static String encodeValue(Object value) {
+        if (value == null) return "n";
+        if (value instanceof Integer i) return "i" + i;
+        if (value instanceof Instant t) return "t" + t;
+        return "s" + value;
+    }
+
+    private static Object decodeValue(String encoded) {
+        if (encoded.isEmpty()) throw new IllegalArgumentException("Malformed cursor value");
+        String v = encoded.substring(1);
+        return switch (encoded.charAt(0)) {
+            case 'n' -> null;
+            case 'i' -> Integer.valueOf(v);
+            case 't' -> Instant.parse(v);
+            case 's' -> v;
+            default -> throw new IllegalArgumentException("Malformed cursor value");
+        };
+    }
+}
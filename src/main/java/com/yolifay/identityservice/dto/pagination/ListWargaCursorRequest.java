@@ -0,0 +1,9 @@
+package com.yolifay.identityservice.dto.pagination;
+
+import com.yolifay.identityservice.dto.filter.WargaFilter;
+
+public record ListWargaCursorRequest(
+        CursorPaging paging,
+        WargaFilter wargaFilter
+) {
+}
@@ -5,16 +5,17 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import java.util.List;
 
-@JsonPropertyOrder({ "content", "totalElements", "page", "size", "from", "to",
+@JsonPropertyOrder({ "content", "totalElements", "countStrategy", "page", "size", "from", "to",
         "totalPages", "numberOfElements", "first", "last", "nextPage", "hasNext", "sortMeta" })
 public record PageEnvelope<T>(
         List<T> content,
-        long totalElements,
+        Long totalElements,       // null jika count=none; estimasi jika count=estimated
+        String countStrategy,     // exact|estimated|none
         int page,                 // nomor halaman saat ini (1-based)
         int size,                 // jumlah item per halaman
         long from,                // indeks urutan global item pertama pada halaman ini (1-based), 0 jika kosong
         long to,                  // indeks urutan global item terakhir pada halaman ini, 0 jika kosong
-        int totalPages,           // total jumlah halaman
+        Integer totalPages,       // total jumlah halaman; null jika count=none
         int numberOfElements,     // jumlah item aktual pada halaman ini
         boolean first,            // true jika halaman saat ini adalah halaman pertama
         boolean last,             // true jika halaman saat ini adalah halaman terakhir
@@ -40,6 +41,7 @@ public record PageEnvelope<T>(
         return new PageEnvelope<>(
                 content,
                 total,
+                "exact",
                 page,
                 size,
                 from,
@@ -53,4 +55,42 @@ public record PageEnvelope<T>(
                 sort
         );
     }
+
+    /**
+     * Halaman tanpa COUNT(*) yang akurat: hasNext diketahui dari probe perpage + 1 baris.
+     * estimatedTotal null berarti count=none; selain itu count=estimated (minimal sebanyak yang sudah terlihat).
+     */
+    public static <T> PageEnvelope<T> ofSlice(BasePaging paging, List<T> content, boolean hasNext,
+                                              Long estimatedTotal, SortMeta sort) {
+        int page = paging.page();
+        int size = paging.perpage();
+        int count = content != null ? content.size() : 0;
+
+        long from = (count == 0) ? 0 : ((long) (page - 1) * size) + 1;
+        long to = (count == 0) ? 0 : from + count - 1;
+
+        Long total = null;
+        Integer totalPages = null;
+        if (estimatedTotal != null) {
+            total = Math.max(estimatedTotal, to + (hasNext ? 1 : 0));
+            totalPages = (int) Math.ceil((double) total / (double) size);
+        }
+
+        return new PageEnvelope<>(
+                content,
+                total,
+                estimatedTotal != null ? "estimated" : "none",
+                page,
+                size,
+                from,
+                to,
+                totalPages,
+                count,
+                page <= 1,
+                !hasNext,
+                hasNext ? page + 1 : null,
+                hasNext,
+                sort
+        );
+    }
 }
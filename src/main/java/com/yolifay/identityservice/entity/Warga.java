@@ -37,6 +37,11 @@ public class Warga {
     @UpdateTimestamp
     private Instant updatedAt;
 
+    // optimistic locking; UPDATE native (PUT/PATCH/import) juga menaikkan version + 1
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     public void prePersist() {
         if (id == null) {
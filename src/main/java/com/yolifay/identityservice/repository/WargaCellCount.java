@@ -0,0 +1,6 @@
+package com.yolifay.identityservice.repository;
+
+/**
+ * Jumlah warga untuk satu pasangan (rw, rt); rw / rt null = warga tanpa RW / RT.
+ */
+public record WargaCellCount(Integer rw, Integer rt, long count) {}
@@ -0,0 +1,13 @@
+package com.yolifay.identityservice.repository;
+
+/**
+ * Penanda perubahan tabel warga (initdb/005): naik di setiap statement INSERT/UPDATE/DELETE yang commit.
+ */
+public record WargaChangeMarker(
+        long version
+) {
+    /** ETag kuat untuk halaman list; sama untuk semua filter karena marker berlaku untuk seluruh tabel. */
+    public String etag() {
+        return "\"w" + version + "\"";
+    }
+}
@@ -0,0 +1,61 @@
+package com.yolifay.identityservice.repository;
+
+import com.yolifay.identityservice.dto.filter.WargaFilter;
+
+/**
+ * Bentuk filter list warga yang sudah dinormalisasi (q trim + lowercase, rt/rw <= 0 dianggap kosong).
+ * Dipakai sebagai key cache count dan sumber WHERE untuk query JPA maupun native.
+ */
+public record WargaCriteria(
+        String q,
+        Integer rt,
+        Integer rw
+) {
+    public static WargaCriteria of(String q, WargaFilter wargaFilter) {
+        String normalizedQ = (q == null || q.isBlank()) ? null : q.trim().toLowerCase();
+        Integer rt = wargaFilter != null ? wargaFilter.getRt() : null;
+        Integer rw = wargaFilter != null ? wargaFilter.getRw() : null;
+        return new WargaCriteria(
+                normalizedQ,
+                (rt != null && rt > 0) ? rt : null,
+                (rw != null && rw > 0) ? rw : null
+        );
+    }
+
+    public boolean hasFilter() {
+        return q != null || rt != null || rw != null;
+    }
+
+    /**
+     * q berupa angka dicari sebagai prefix nik/phone_number (btree text_pattern_ops),
+     * selain itu substring nama/alamat (GIN trigram).
+     */
+    public boolean numericSearch() {
+        return q != null && q.chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * q angka minimal 3 digit juga dicari sebagai substring alamat (mis. nomor rumah), lewat GIN trigram
+     * yang sama dengan q teks. Di bawah 3 karakter trigram tidak bisa memakai index, jadi hanya prefix.
+     */
+    public boolean numericAlamatSearch() {
+        return numericSearch() && q.length() >= 3;
+    }
+
+    /**
+     * Bentuk filter tanpa nilai (aman untuk tag metric dan log), mis. "q:text+rt", "q:numeric", "none".
+     */
+    public String shape() {
+        if (!hasFilter()) return "none";
+        StringBuilder sb = new StringBuilder();
+        if (q != null) sb.append(numericSearch() ? "q:numeric" : "q:text");
+        if (rt != null) sb.append(sb.isEmpty() ? "" : "+").append("rt");
+        if (rw != null) sb.append(sb.isEmpty() ? "" : "+").append("rw");
+        return sb.toString();
+    }
+
+    /** q dengan karakter wildcard LIKE di-escape (escape char: backslash). */
+    public String escapedQ() {
+        return q == null ? null : q.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
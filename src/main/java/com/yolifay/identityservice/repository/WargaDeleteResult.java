@@ -0,0 +1,6 @@
+package com.yolifay.identityservice.repository;
+
+/**
+ * Hasil DELETE ... RETURNING satu warga: nomor telepon (evict lookup cache) dan rw / rt (statistik RT/RW).
+ */
+public record WargaDeleteResult(String phoneNumber, Integer rw, Integer rt) {}
@@ -0,0 +1,157 @@
+package com.yolifay.identityservice.repository;
+
+import com.yolifay.identityservice.dto.WargaImportReject;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Pipeline import CSV: COPY ke staging table sementara, validasi + dedup di SQL,
+ * lalu merge ke warga dengan satu INSERT ... ON CONFLICT (nik) DO UPDATE.
+ * Semua method harus dipanggil di dalam satu transaksi (staging table ON COMMIT DROP).
+ */
+@Repository
+@RequiredArgsConstructor
+public class WargaImportRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String SQL_CREATE_STAGE = """
+            CREATE TEMP TABLE warga_import_stage (
+                row_no        BIGSERIAL,
+                nik           TEXT,
+                nama          TEXT,
+                phone_number  TEXT,
+                alamat        TEXT,
+                rt            TEXT,
+                rw            TEXT,
+                reject_reason TEXT
+            ) ON COMMIT DROP
+            """;
+
+    private static final String SQL_COPY = """
+            COPY warga_import_stage (nik, nama, phone_number, alamat, rt, rw)
+            FROM STDIN WITH (FORMAT csv, HEADER true)
+            """;
+
+    // Constraint sama dengan WargaCreateRequest + CHECK pada tabel warga
+    private static final String SQL_VALIDATE = """
+            UPDATE warga_import_stage SET reject_reason = CASE
+                WHEN nik IS NULL OR btrim(nik) = '' OR char_length(nik) <> 16
+                    THEN 'nik harus 16 karakter'
+                WHEN nama IS NULL OR btrim(nama) = ''
+                    THEN 'nama tidak boleh kosong'
+                WHEN phone_number IS NULL OR btrim(phone_number) = '' OR char_length(phone_number) NOT BETWEEN 10 AND 15
+                    THEN 'phoneNumber harus 10-15 karakter'
+                WHEN rt IS NOT NULL AND rt !~ '^[0-9]{1,3}$'
+                    THEN 'rt harus angka 1-999'
+                WHEN rt IS NOT NULL AND rt::int NOT BETWEEN 1 AND 999
+                    THEN 'rt harus angka 1-999'
+                WHEN rw IS NOT NULL AND rw !~ '^[0-9]{1,3}$'
+                    THEN 'rw harus angka 1-999'
+                WHEN rw IS NOT NULL AND rw::int NOT BETWEEN 1 AND 999
+                    THEN 'rw harus angka 1-999'
+            END
+            """;
+
+    // Duplikat di dalam file: baris terakhir yang dipakai
+    private static final String SQL_REJECT_DUPLICATE_NIK = """
+            UPDATE warga_import_stage s SET reject_reason = 'NIK duplikat di dalam file'
+            FROM (SELECT row_no, row_number() OVER (PARTITION BY nik ORDER BY row_no DESC) AS rn
+                  FROM warga_import_stage WHERE reject_reason IS NULL) d
+            WHERE s.row_no = d.row_no AND d.rn > 1
+            """;
+
+    private static final String SQL_REJECT_DUPLICATE_PHONE = """
+            UPDATE warga_import_stage s SET reject_reason = 'Nomor telepon duplikat di dalam file'
+            FROM (SELECT row_no, row_number() OVER (PARTITION BY phone_number ORDER BY row_no DESC) AS rn
+                  FROM warga_import_stage WHERE reject_reason IS NULL) d
+            WHERE s.row_no = d.row_no AND d.rn > 1
+            """;
+
+    // Dari cek nomor telepon sampai commit tidak boleh ada POST/PATCH yang mengambil nomor dari file:
+    // kalau terjadi, merge kena unique violation dan seluruh import gagal. SHARE ROW EXCLUSIVE menahan
+    // penulis lain (dan import lain) sampai commit, baca tetap jalan.
+    private static final String SQL_LOCK_WARGA = "LOCK TABLE warga IN SHARE ROW EXCLUSIVE MODE";
+
+    private static final String SQL_REJECT_PHONE_TAKEN = """
+            UPDATE warga_import_stage s SET reject_reason = 'Nomor telepon sudah terdaftar'
+            FROM warga w
+            WHERE s.reject_reason IS NULL AND w.phone_number = s.phone_number AND w.nik <> s.nik
+            """;
+
+    // xmax = 0 pada RETURNING menandakan baris hasil INSERT (bukan UPDATE karena konflik)
+    private static final String SQL_MERGE = """
+            WITH merged AS (
+                INSERT INTO warga (id, nik, nama, phone_number, alamat, rt, rw, created_at, updated_at, version)
+                SELECT gen_random_uuid(), nik, nama, phone_number, alamat, rt::int, rw::int, now(), now(), 0
+                FROM warga_import_stage
+                WHERE reject_reason IS NULL
+                ON CONFLICT (nik) DO UPDATE SET
+                    nama         = EXCLUDED.nama,
+                    phone_number = EXCLUDED.phone_number,
+                    alamat       = EXCLUDED.alamat,
+                    rt           = EXCLUDED.rt,
+                    rw           = EXCLUDED.rw,
+                    updated_at   = now(),
+                    version      = warga.version + 1
+                RETURNING (xmax = 0) AS inserted
+            )
+            SELECT count(*) FILTER (WHERE inserted), count(*) FILTER (WHERE NOT inserted) FROM merged
+            """;
+
+    public void createStage() {
+        jdbcTemplate.execute(SQL_CREATE_STAGE);
+    }
+
+    /** Stream CSV langsung ke COPY tanpa menampung file di memori. Return jumlah baris yang diterima. */
+    public long copyIntoStage(InputStream csv) {
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try {
+                return con.unwrap(PGConnection.class).getCopyAPI().copyIn(SQL_COPY, csv);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Tandai baris yang ditolak; return jumlah baris ditolak. Mengunci tabel warga untuk penulis lain
+     * sampai transaksi selesai, jadi {@link #mergeIntoWarga()} harus dipanggil di transaksi yang sama.
+     */
+    public long rejectInvalidRows() {
+        jdbcTemplate.update(SQL_VALIDATE);
+        jdbcTemplate.update(SQL_REJECT_DUPLICATE_NIK);
+        jdbcTemplate.update(SQL_REJECT_DUPLICATE_PHONE);
+        jdbcTemplate.execute(SQL_LOCK_WARGA);
+        jdbcTemplate.update(SQL_REJECT_PHONE_TAKEN);
+        Long rejected = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM warga_import_stage WHERE reject_reason IS NOT NULL", Long.class);
+        return rejected == null ? 0 : rejected;
+    }
+
+    /** Merge baris valid ke warga; return {inserted, updated}. */
+    public long[] mergeIntoWarga() {
+        return jdbcTemplate.queryForObject(SQL_MERGE, (rs, i) -> new long[] { rs.getLong(1), rs.getLong(2) });
+    }
+
+    /** Stream (nik, phone_number) baris yang diterima, untuk didaftarkan ke key filter. */
+    public void streamAcceptedKeys(RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT nik, phone_number FROM warga_import_stage WHERE reject_reason IS NULL", handler);
+    }
+
+    public List<WargaImportReject> findRejects(int limit) {
+        return jdbcTemplate.query(
+                "SELECT row_no, nik, reject_reason FROM warga_import_stage WHERE reject_reason IS NOT NULL ORDER BY row_no LIMIT ?",
+                (rs, i) -> new WargaImportReject(rs.getLong("row_no"), rs.getString("nik"), rs.getString("reject_reason")),
+                limit);
+    }
+}
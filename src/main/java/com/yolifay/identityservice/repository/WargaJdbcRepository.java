@@ -0,0 +1,350 @@
+package com.yolifay.identityservice.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yolifay.identityservice.dto.WargaResponse;
+import com.yolifay.identityservice.entity.Warga;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Query native (JdbcTemplate) untuk tabel warga yang tidak cocok lewat JPA.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class WargaJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Ekstrapolasi seperti planner: reltuples/relpages * jumlah page saat ini; NULL jika belum pernah di-ANALYZE
+    private static final String SQL_RELTUPLES = """
+            SELECT CASE
+                     WHEN c.reltuples < 0 THEN NULL
+                     WHEN c.relpages = 0 THEN c.reltuples::bigint
+                     ELSE (c.reltuples / c.relpages
+                           * (pg_relation_size(c.oid) / current_setting('block_size')::int))::bigint
+                   END
+            FROM pg_class c
+            WHERE c.oid = 'public.warga'::regclass
+            """;
+
+    // created_at = updated_at seperti @CreationTimestamp / @UpdateTimestamp saat persist lewat JPA
+    private static final String SQL_INSERT_IGNORING_CONFLICTS = """
+            INSERT INTO warga (id, nik, nama, phone_number, alamat, rt, rw, created_at, updated_at, version)
+            SELECT gen_random_uuid(), t.nik, t.nama, t.phone_number, t.alamat, t.rt, t.rw, now(), now(), 0
+            FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::int[], ?::int[])
+                 AS t(nik, nama, phone_number, alamat, rt, rw)
+            ON CONFLICT DO NOTHING
+            RETURNING id, nik, nama, phone_number, alamat, rt, rw, created_at, updated_at, version
+            """;
+
+    private static final String SQL_UPDATE_BY_NIK = """
+            WITH old AS (
+                SELECT id, phone_number, rt, rw FROM warga WHERE nik = ? FOR UPDATE
+            )
+            UPDATE warga w
+            SET nama = ?, phone_number = ?, alamat = ?, rt = ?, rw = ?, updated_at = now(), version = w.version + 1
+            FROM old
+            WHERE w.id = old.id
+            RETURNING w.id, w.nik, w.nama, w.phone_number, w.alamat, w.rt, w.rw, w.created_at, w.updated_at, w.version,
+                      old.phone_number AS previous_phone_number, old.rt AS previous_rt, old.rw AS previous_rw
+            """;
+
+    // %s = daftar "kolom = ?" yang dikirim saja. Baris old selalu dikembalikan: tanpa baris -> NIK tidak ada,
+    // kolom updated NULL -> version tidak cocok (lost update), dibedakan tanpa query kedua.
+    private static final String SQL_PATCH_BY_NIK = """
+            WITH old AS (
+                SELECT id, phone_number, rt, rw, version FROM warga WHERE nik = ? FOR UPDATE
+            ), updated AS (
+                UPDATE warga w
+                SET %s, updated_at = now(), version = w.version + 1
+                FROM old
+                WHERE w.id = old.id AND w.version = ?
+                RETURNING w.id, w.nik, w.nama, w.phone_number, w.alamat, w.rt, w.rw, w.created_at, w.updated_at, w.version
+            )
+            SELECT u.*, old.phone_number AS previous_phone_number, old.rt AS previous_rt, old.rw AS previous_rw,
+                   old.version AS current_version
+            FROM old LEFT JOIN updated u ON TRUE
+            """;
+
+    // rt / rw baris yang terhapus dijumlahkan per sel di DB supaya statistik RT/RW bisa dikoreksi tanpa
+    // mengirim satu baris per warga ke aplikasi
+    private static final String SQL_DELETE_COUNTED = """
+            WITH deleted AS (
+                DELETE FROM warga WHERE %s RETURNING rw, rt
+            )
+            SELECT rw, rt, count(*) FROM deleted GROUP BY rw, rt
+            """;
+
+    /** Marker perubahan tabel warga (16 baris kecil, tanpa menyentuh tabel warga). */
+    public WargaChangeMarker changeMarker() {
+        return jdbcTemplate.queryForObject("SELECT coalesce(sum(version), 0) FROM warga_change_marker",
+                (rs, i) -> new WargaChangeMarker(rs.getLong(1)));
+    }
+
+    /**
+     * Estimasi jumlah baris yang cocok dengan criteria tanpa COUNT(*).
+     * Tanpa filter: pg_class.reltuples; dengan filter: "Plan Rows" dari EXPLAIN.
+     * Empty jika estimasi tidak tersedia (tabel belum di-ANALYZE).
+     */
+    public Optional<Long> estimateCount(WargaCriteria criteria) {
+        if (!criteria.hasFilter()) {
+            return Optional.ofNullable(jdbcTemplate.queryForObject(SQL_RELTUPLES, Long.class));
+        }
+
+        List<Object> params = new ArrayList<>();
+        String sql = "EXPLAIN (FORMAT JSON) SELECT 1 FROM warga WHERE " + where(criteria, params);
+        String plan = jdbcTemplate.queryForObject(sql, String.class, params.toArray());
+        try {
+            JsonNode rows = objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows");
+            return rows.isNumber() ? Optional.of(rows.asLong()) : Optional.empty();
+        } catch (JsonProcessingException e) {
+            log.warn("[count] unable to parse EXPLAIN output: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stream semua warga yang cocok dengan criteria lewat server-side cursor PostgreSQL
+     * (butuh transaksi / autocommit off + fetch size), urut created_at, id.
+     * Memori konstan: hanya {@code fetchSize} baris yang ditahan driver pada satu waktu.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(WargaCriteria criteria, int fetchSize, RowCallbackHandler handler) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT id, nik, nama, phone_number, alamat, rt, rw FROM warga WHERE "
+                + where(criteria, params) + " ORDER BY created_at, id";
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Stream semua pasangan (nik, phone_number) untuk membangun key filter. Sengaja bukan readOnly:
+     * dengan read replica, key yang belum ter-replikasi akan hilang dari filter (false negative).
+     */
+    @Transactional
+    public void streamKeys(int fetchSize, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT nik, phone_number FROM warga",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Lookup banyak NIK dengan satu statement {@code nik = ANY(?)} (satu parameter array, satu plan
+     * berapapun jumlah NIK-nya), langsung sebagai WargaResponse. NIK yang tidak ada tidak dikembalikan.
+     */
+    public List<WargaResponse> findResponsesByNiks(Collection<String> niks) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    SELECT id, nik, nama, phone_number, alamat, rt, rw, version, coalesce(updated_at, created_at) AS last_modified
+                    FROM warga WHERE nik = ANY(?)
+                    """);
+            ps.setArray(1, con.createArrayOf("varchar", niks.toArray()));
+            return ps;
+        }, (rs, i) -> WargaResponse.builder()
+                .id(rs.getString("id"))
+                .nik(rs.getString("nik"))
+                .nama(rs.getString("nama"))
+                .phoneNumber(rs.getString("phone_number"))
+                .alamat(rs.getString("alamat"))
+                .rt(rs.getObject("rt", Integer.class))
+                .rw(rs.getObject("rw", Integer.class))
+                .version(rs.getLong("version"))
+                .lastModified(rs.getObject("last_modified", OffsetDateTime.class).toInstant())
+                .build());
+    }
+
+    /**
+     * Jumlah warga per (rw, rt) untuk statistik RT/RW. Tanpa transaksi read-only supaya selalu
+     * dibaca dari primary: hasilnya menggantikan aggregate in-memory yang di-update setelah commit.
+     */
+    public List<WargaCellCount> countByRwRt() {
+        return jdbcTemplate.query("SELECT rw, rt, count(*) FROM warga GROUP BY rw, rt", WargaJdbcRepository::mapCellCount);
+    }
+
+    /**
+     * Insert banyak warga dalam satu statement (satu parameter array per kolom). Baris yang bentrok
+     * dengan unique constraint nik / phone_number (mis. insert bersamaan dari request lain) dilewati,
+     * bukan menggagalkan seluruh statement; hanya baris yang benar-benar ter-insert yang dikembalikan.
+     */
+    public List<Warga> insertIgnoringConflicts(List<Warga> entities) {
+        if (entities.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_INSERT_IGNORING_CONFLICTS);
+            ps.setArray(1, con.createArrayOf("varchar", entities.stream().map(Warga::getNik).toArray()));
+            ps.setArray(2, con.createArrayOf("varchar", entities.stream().map(Warga::getNama).toArray()));
+            ps.setArray(3, con.createArrayOf("varchar", entities.stream().map(Warga::getPhoneNumber).toArray()));
+            ps.setArray(4, con.createArrayOf("varchar", entities.stream().map(Warga::getAlamat).toArray()));
+            ps.setArray(5, con.createArrayOf("int4", entities.stream().map(Warga::getRt).toArray()));
+            ps.setArray(6, con.createArrayOf("int4", entities.stream().map(Warga::getRw).toArray()));
+            return ps;
+        }, (rs, i) -> mapWarga(rs));
+    }
+
+    /**
+     * Update warga berdasarkan NIK dalam satu statement. Baris lama dikunci di CTE supaya
+     * nomor telepon sebelumnya yang dikembalikan konsisten dengan yang di-update.
+     * Empty jika NIK tidak ditemukan.
+     */
+    public Optional<WargaUpdateResult> updateByNik(String nik, String nama, String phoneNumber,
+                                                   String alamat, Integer rt, Integer rw) {
+        return jdbcTemplate.query(SQL_UPDATE_BY_NIK,
+                (rs, i) -> mapUpdateResult(rs),
+                nik, nama, phoneNumber, alamat, rt, rw
+        ).stream().findFirst();
+    }
+
+    /**
+     * Hapus warga berdasarkan NIK dalam satu statement. Empty jika tidak ada baris yang terhapus;
+     * nomor telepon (evict cache lookup) dan rt / rw (statistik) dikembalikan.
+     */
+    public Optional<WargaDeleteResult> deleteByNik(String nik) {
+        return jdbcTemplate.query("DELETE FROM warga WHERE nik = ? RETURNING phone_number, rw, rt",
+                (rs, i) -> new WargaDeleteResult(rs.getString("phone_number"),
+                        rs.getObject("rw", Integer.class), rs.getObject("rt", Integer.class)),
+                nik
+        ).stream().findFirst();
+    }
+
+    /** Hapus sekumpulan NIK dengan satu statement {@code nik = ANY(?)}; return jumlah baris terhapus per (rw, rt). */
+    public List<WargaCellCount> deleteByNiks(List<String> niks) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_DELETE_COUNTED.formatted("nik = ANY(?)"));
+            ps.setArray(1, con.createArrayOf("varchar", niks.toArray()));
+            return ps;
+        }, WargaJdbcRepository::mapCellCount);
+    }
+
+    /**
+     * Hapus maksimal {@code limit} baris yang cocok dengan criteria; return jumlah terhapus per (rw, rt).
+     * Dipanggil berulang sampai chunk tidak penuh supaya setiap statement (dan lock-nya) tetap kecil.
+     */
+    public List<WargaCellCount> deleteChunk(WargaCriteria criteria, int limit) {
+        List<Object> params = new ArrayList<>();
+        String sql = SQL_DELETE_COUNTED.formatted("id IN (SELECT id FROM warga WHERE " + where(criteria, params) + " LIMIT ?)");
+        params.add(limit);
+        return jdbcTemplate.query(sql, WargaJdbcRepository::mapCellCount, params.toArray());
+    }
+
+    /**
+     * Partial update (PATCH) dalam satu statement: hanya kolom yang tidak null yang di-SET, dan hanya jika
+     * version masih sama dengan {@code expectedVersion}. Empty jika NIK tidak ditemukan;
+     * OptimisticLockingFailureException jika baris sudah diubah request lain.
+     */
+    public Optional<WargaUpdateResult> patchByNik(String nik, long expectedVersion, String nama, String phoneNumber,
+                                                  String alamat, Integer rt, Integer rw) {
+        List<String> sets = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        params.add(nik);
+        setIfPresent(sets, params, "nama", nama);
+        setIfPresent(sets, params, "phone_number", phoneNumber);
+        setIfPresent(sets, params, "alamat", alamat);
+        setIfPresent(sets, params, "rt", rt);
+        setIfPresent(sets, params, "rw", rw);
+        if (sets.isEmpty()) {
+            throw new IllegalArgumentException("PATCH tanpa kolom yang diubah");
+        }
+        params.add(expectedVersion);
+
+        return jdbcTemplate.query(SQL_PATCH_BY_NIK.formatted(String.join(", ", sets)), rs -> {
+            if (!rs.next()) {
+                return Optional.<WargaUpdateResult>empty();
+            }
+            if (rs.getObject("id") == null) {
+                throw new OptimisticLockingFailureException("Warga dengan NIK " + nik + " sudah diubah (version "
+                        + expectedVersion + " -> " + rs.getLong("current_version") + ")");
+            }
+            return Optional.of(mapUpdateResult(rs));
+        }, params.toArray());
+    }
+
+    private static void setIfPresent(List<String> sets, List<Object> params, String column, Object value) {
+        if (value != null) {
+            sets.add(column + " = ?");
+            params.add(value);
+        }
+    }
+
+    private static WargaUpdateResult mapUpdateResult(ResultSet rs) throws SQLException {
+        return new WargaUpdateResult(mapWarga(rs), rs.getString("previous_phone_number"),
+                rs.getObject("previous_rw", Integer.class), rs.getObject("previous_rt", Integer.class));
+    }
+
+    private static WargaCellCount mapCellCount(ResultSet rs, int rowNum) throws SQLException {
+        return new WargaCellCount(rs.getObject("rw", Integer.class), rs.getObject("rt", Integer.class), rs.getLong("count"));
+    }
+
+    private static Warga mapWarga(ResultSet rs) throws SQLException {
+        OffsetDateTime updatedAt = rs.getObject("updated_at", OffsetDateTime.class);
+        return Warga.builder()
+                .id(rs.getObject("id", UUID.class))
+                .nik(rs.getString("nik"))
+                .nama(rs.getString("nama"))
+                .phoneNumber(rs.getString("phone_number"))
+                .alamat(rs.getString("alamat"))
+                .rt(rs.getObject("rt", Integer.class))
+                .rw(rs.getObject("rw", Integer.class))
+                .createdAt(rs.getObject("created_at", OffsetDateTime.class).toInstant())
+                .updatedAt(updatedAt == null ? null : updatedAt.toInstant())
+                .version(rs.getLong("version"))
+                .build();
+    }
+
+    /** WHERE native yang setara dengan {@link WargaSpecifications#filter(WargaCriteria)}. */
+    static String where(WargaCriteria criteria, List<Object> params) {
+        List<String> clauses = new ArrayList<>();
+        if (criteria.q() != null && criteria.numericSearch()) {
+            params.add(criteria.q() + "%");
+            params.add(criteria.q() + "%");
+            if (criteria.numericAlamatSearch()) {
+                clauses.add("(nik LIKE ? OR phone_number LIKE ? OR lower(alamat) LIKE ?)");
+                params.add("%" + criteria.q() + "%");
+            } else {
+                clauses.add("(nik LIKE ? OR phone_number LIKE ?)");
+            }
+        } else if (criteria.q() != null) {
+            String likePattern = "%" + criteria.escapedQ() + "%";
+            clauses.add("(lower(nama) LIKE ? OR lower(alamat) LIKE ?)");
+            params.add(likePattern);
+            params.add(likePattern);
+        }
+        if (criteria.rt() != null) {
+            clauses.add("rt = ?");
+            params.add(criteria.rt());
+        }
+        if (criteria.rw() != null) {
+            clauses.add("rw = ?");
+            params.add(criteria.rw());
+        }
+        return clauses.isEmpty() ? "TRUE" : String.join(" AND ", clauses);
+    }
+}
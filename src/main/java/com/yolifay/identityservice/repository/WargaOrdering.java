@@ -0,0 +1,24 @@
+package com.yolifay.identityservice.repository;
+
+import com.yolifay.identityservice.entity.Warga;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+/**
+ * ORDER BY untuk query slice warga. Selain {@link Sort} biasa, bisa berupa ekspresi yang tidak
+ * bisa dinyatakan dengan Sort, mis. skor relevansi ({@link WargaSpecifications#orderByRelevance}).
+ */
+@FunctionalInterface
+public interface WargaOrdering {
+
+    List<Order> toOrders(Root<Warga> root, CriteriaBuilder cb);
+
+    static WargaOrdering of(Sort sort) {
+        return (root, cb) -> QueryUtils.toOrders(sort, root, cb);
+    }
+}
@@ -0,0 +1,134 @@
+package com.yolifay.identityservice.repository;
+
+import com.yolifay.identityservice.dto.WargaChangeEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Outbox perubahan warga (initdb/006_warga_outbox.sql). Baris outbox ditulis trigger; repository ini
+ * hanya mempublish (mengisi seq), membaca feed, mencatat ack consumer dan memangkas.
+ * Semua query tanpa transaksi read-only supaya selalu ke primary: seq yang baru dipublish
+ * belum tentu sudah ada di replica.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WargaOutboxRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    // kunci advisory transaksi: hanya satu relay (antar instance) yang mengisi seq pada satu waktu
+    private static final long RELAY_LOCK_KEY = 0x77617267614f7574L;
+
+    // nextval dievaluasi urut id supaya perubahan berurutan pada baris yang sama tetap berurutan di feed
+    private static final String SQL_PUBLISH = """
+            WITH batch AS (
+                SELECT id FROM warga_outbox WHERE seq IS NULL ORDER BY id LIMIT ? FOR UPDATE
+            ), numbered AS (
+                SELECT id, nextval('warga_change_seq') AS seq FROM (SELECT id FROM batch ORDER BY id) b
+            )
+            UPDATE warga_outbox o
+            SET seq = n.seq, published_at = now()
+            FROM numbered n
+            WHERE o.id = n.id
+            """;
+
+    private static final String SQL_SINCE = """
+            SELECT seq, op, nik, before::text AS before, after::text AS after, changed_at
+            FROM warga_outbox
+            WHERE seq > ?
+            ORDER BY seq
+            LIMIT ?
+            """;
+
+    private static final String SQL_ACK = """
+            INSERT INTO warga_outbox_consumer (consumer, acked_seq, seen_at) VALUES (?, ?, now())
+            ON CONFLICT (consumer) DO UPDATE SET acked_seq = excluded.acked_seq, seen_at = now()
+            """;
+
+    // batas aman: seq terkecil yang sudah di-ack semua consumer aktif; NULL jika tidak ada consumer aktif
+    private static final String SQL_MIN_ACKED = """
+            SELECT min(acked_seq) FROM warga_outbox_consumer WHERE seen_at > ?
+            """;
+
+    private static final String SQL_PRUNE_CHUNK = """
+            WITH pruned AS (
+                DELETE FROM warga_outbox
+                WHERE id IN (
+                    SELECT id FROM warga_outbox
+                    WHERE seq IS NOT NULL AND (seq <= ? OR published_at < ?)
+                    ORDER BY seq
+                    LIMIT ?
+                )
+                RETURNING seq
+            ), mark AS (
+                UPDATE warga_outbox_watermark
+                SET pruned_through = greatest(pruned_through, (SELECT max(seq) FROM pruned))
+                WHERE id = 1 AND EXISTS (SELECT 1 FROM pruned)
+            )
+            SELECT count(*) FROM pruned
+            """;
+
+    /**
+     * Isi seq untuk maksimal {@code limit} baris outbox yang sudah commit. Return jumlah baris yang
+     * dipublish; -1 jika relay lain sedang memegang kunci.
+     */
+    @Transactional
+    public int publishPending(int limit) {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            return -1;
+        }
+        return jdbcTemplate.update(SQL_PUBLISH, limit);
+    }
+
+    /** seq tertinggi yang sudah dipublish (0 jika belum ada). */
+    public long latestSeq() {
+        Long seq = jdbcTemplate.queryForObject("SELECT max(seq) FROM warga_outbox", Long.class);
+        return seq == null ? 0 : seq;
+    }
+
+    public List<WargaChangeEvent> findSince(long since, int limit) {
+        return jdbcTemplate.query(SQL_SINCE, WargaOutboxRepository::mapEvent, since, limit);
+    }
+
+    public long prunedThrough() {
+        return jdbcTemplate.queryForObject("SELECT pruned_through FROM warga_outbox_watermark WHERE id = 1", Long.class);
+    }
+
+    /** Consumer sudah memproses semua perubahan sampai {@code seq}. */
+    public void ack(String consumer, long seq) {
+        jdbcTemplate.update(SQL_ACK, consumer, seq);
+    }
+
+    public Long minAckedSeq(Instant activeSince) {
+        return jdbcTemplate.queryForObject(SQL_MIN_ACKED, Long.class, Timestamp.from(activeSince));
+    }
+
+    /**
+     * Hapus maksimal {@code limit} baris yang sudah di-ack ({@code seq <= ackedThrough}) atau sudah
+     * dipublish sebelum {@code publishedBefore}; watermark ikut dinaikkan di statement yang sama.
+     */
+    public int pruneChunk(long ackedThrough, Instant publishedBefore, int limit) {
+        Long deleted = jdbcTemplate.queryForObject(SQL_PRUNE_CHUNK, Long.class,
+                ackedThrough, Timestamp.from(publishedBefore), limit);
+        return deleted == null ? 0 : deleted.intValue();
+    }
+
+    private static WargaChangeEvent mapEvent(ResultSet rs, int rowNum) throws SQLException {
+        return new WargaChangeEvent(
+                rs.getLong("seq"),
+                rs.getString("op"),
+                rs.getString("nik"),
+                rs.getString("before"),
+                rs.getString("after"),
+                rs.getObject("changed_at", OffsetDateTime.class).toInstant());
+    }
+}
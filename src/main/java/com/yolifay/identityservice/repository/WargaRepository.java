@@ -1,20 +1,40 @@
 package com.yolifay.identityservice.repository;
 
+import com.yolifay.identityservice.dto.WargaResponse;
 import com.yolifay.identityservice.entity.Warga;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface WargaRepository extends JpaRepository<Warga, UUID> {
+public interface WargaRepository extends JpaRepository<Warga, UUID>, WargaRepositoryCustom {
     Optional<Warga> findByNik(String nik);
     Optional<Warga> findByPhoneNumber(String phoneNumber);
 
+    /** Lookup NIK langsung ke WargaResponse (constructor expression), tanpa entity managed. */
+    @Query("""
+            select new com.yolifay.identityservice.dto.WargaResponse(
+                cast(w.id as String), w.nik, w.nama, w.phoneNumber, w.alamat, w.rt, w.rw, w.version,
+                coalesce(w.updatedAt, w.createdAt))
+            from Warga w where w.nik = :nik""")
+    Optional<WargaResponse> findResponseByNik(@Param("nik") String nik);
+
+    @Query("select w.nik from Warga w where w.nik in :niks")
+    List<String> findExistingNiks(@Param("niks") Collection<String> niks);
+
+    @Query("select w.phoneNumber from Warga w where w.phoneNumber in :phoneNumbers")
+    List<String> findExistingPhoneNumbers(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
     Page<Warga> findAll(Specification spec, Pageable pageable);
+    long count(Specification<Warga> spec);
 
 }
@@ -0,0 +1,29 @@
+package com.yolifay.identityservice.repository;
+
+import com.yolifay.identityservice.dto.WargaResponse;
+import com.yolifay.identityservice.entity.Warga;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface WargaRepositoryCustom {
+
+    /**
+     * Ambil maksimal {@code limit} baris mulai dari {@code offset} sesuai spec + sort, tanpa COUNT query.
+     */
+    List<Warga> findSlice(Specification<Warga> spec, Sort sort, long offset, int limit);
+
+    /**
+     * Seperti {@link #findSlice}, tapi hanya kolom WargaResponse yang di-SELECT langsung ke record
+     * (constructor expression): tanpa entity managed, snapshot dirty checking, maupun createdAt/updatedAt.
+     * Urutan dari {@code ordering}, supaya urutan relevance juga bisa dipakai ({@link WargaOrdering#of(Sort)} untuk Sort biasa).
+     */
+    List<WargaResponse> findResponseSlice(Specification<Warga> spec, WargaOrdering ordering, long offset, int limit);
+
+    /**
+     * INSERT langsung (persist + flush) tanpa SELECT terlebih dahulu. Pelanggaran unique constraint
+     * nik / phone_number dilempar saat flush sebagai DataIntegrityViolationException.
+     */
+    Warga insert(Warga entity);
+}
@@ -0,0 +1,79 @@
+package com.yolifay.identityservice.repository;
+
+import com.yolifay.identityservice.dto.WargaResponse;
+import com.yolifay.identityservice.entity.Warga;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.JpaExpression;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public class WargaRepositoryImpl implements WargaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Warga> findSlice(Specification<Warga> spec, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Warga> query = cb.createQuery(Warga.class);
+        Root<Warga> root = query.from(Warga.class);
+        applySpecAndOrder(query, root, cb, spec, WargaOrdering.of(sort));
+
+        return entityManager.createQuery(query.select(root))
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<WargaResponse> findResponseSlice(Specification<Warga> spec, WargaOrdering ordering, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<WargaResponse> query = cb.createQuery(WargaResponse.class);
+        Root<Warga> root = query.from(Warga.class);
+        applySpecAndOrder(query, root, cb, spec, ordering);
+
+        query.select(cb.construct(WargaResponse.class,
+                // cast(id as varchar) di SQL; Expression#as hanya type cast di Java
+                ((JpaExpression<UUID>) root.<UUID>get("id")).cast(String.class),
+                root.get("nik"),
+                root.get("nama"),
+                root.get("phoneNumber"),
+                root.get("alamat"),
+                root.get("rt"),
+                root.get("rw"),
+                root.get("version"),
+                cb.coalesce(root.<Instant>get("updatedAt"), root.<Instant>get("createdAt"))));
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /** WHERE dari spec + ORDER BY dari ordering; spec hanya menyumbang predicate. */
+    private static void applySpecAndOrder(CriteriaQuery<?> query, Root<Warga> root, CriteriaBuilder cb,
+                                          Specification<Warga> spec, WargaOrdering ordering) {
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(ordering.toOrders(root, cb));
+    }
+
+    @Override
+    public Warga insert(Warga entity) {
+        entityManager.persist(entity);
+        entityManager.flush();
+        return entity;
+    }
+}
@@ -0,0 +1,173 @@
+package com.yolifay.identityservice.repository;
+
+import com.yolifay.identityservice.dto.pagination.KeysetCursor;
+import com.yolifay.identityservice.entity.Warga;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public final class WargaSpecifications {
+
+    private static final String PHONE_NUMBER = "phoneNumber";
+    private static final String ID = "id";
+    private static final char ESCAPE = '\\';
+
+    /** Kolom sort yang unik; tidak butuh id sebagai tie-breaker. */
+    public static final Set<String> UNIQUE_SORT_FIELDS = Set.of("nik", PHONE_NUMBER);
+
+    /** Kolom sort yang boleh NULL (PostgreSQL: NULLS LAST untuk ASC, NULLS FIRST untuk DESC). */
+    private static final Set<String> NULLABLE_SORT_FIELDS = Set.of("rt", "rw");
+
+    /** Tipe nilai cursor per kolom sort keyset, sesuai tipe atribut entity. */
+    private static final Map<String, Class<?>> CURSOR_VALUE_TYPES = Map.of(
+            "nama", String.class,
+            "nik", String.class,
+            PHONE_NUMBER, String.class,
+            "rt", Integer.class,
+            "rw", Integer.class,
+            "createdAt", Instant.class
+    );
+
+    private WargaSpecifications() {
+        throw new IllegalStateException("Utility Class");
+    }
+
+    /**
+     * Filter list warga (WHERE): free text q + RT + RW.
+     */
+    public static Specification<Warga> filter(WargaCriteria criteria) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> filters = new ArrayList<>();
+
+            // 2a. Free text search (q)
+            if (criteria.q() != null && criteria.numericSearch()) {
+                // angka: prefix nik / phone_number -> btree text_pattern_ops; substring alamat -> GIN trigram
+                Predicate any = numericPrefixMatch(root, criteriaBuilder, criteria);
+                if (criteria.numericAlamatSearch()) {
+                    any = criteriaBuilder.or(any, criteriaBuilder.like(criteriaBuilder.lower(root.get("alamat")),
+                            "%" + criteria.q() + "%"));
+                }
+                filters.add(any);
+            } else if (criteria.q() != null) {
+                // teks: substring nama / alamat -> GIN trigram pada lower(...)
+                String likePattern = "%" + criteria.escapedQ() + "%";
+                Predicate any = criteriaBuilder.or(
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("nama")), likePattern, ESCAPE),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("alamat")), likePattern, ESCAPE)
+                );
+                filters.add(any);
+            }
+
+            // 2b. Filter by RT
+            if (criteria.rt() != null) {
+                Predicate byRt = criteriaBuilder.equal(root.get("rt"), criteria.rt());
+                filters.add(byRt);
+            }
+
+            // 2c. Filter by RW
+            if (criteria.rw() != null) {
+                Predicate byRw = criteriaBuilder.equal(root.get("rw"), criteria.rw());
+                filters.add(byRw);
+            }
+
+            // Combine all filters with AND
+            if (filters.isEmpty()) {
+                return  criteriaBuilder.conjunction(); // match all
+            } else if (filters.size() == 1) {
+                return filters.getFirst();
+            } else {
+                return criteriaBuilder.and(filters.toArray(new Predicate[0]));
+            }
+        };
+    }
+
+    /**
+     * Urutan relevansi untuk sortField=relevance (hanya untuk data query, bukan count).
+     * q angka: cocok prefix nik / phone_number lebih dulu dari cocok alamat, lalu nik;
+     * q teks: similarity pg_trgm tertinggi dari nama/alamat.
+     */
+    public static WargaOrdering orderByRelevance(WargaCriteria criteria) {
+        return (root, cb) -> {
+            if (criteria.numericSearch()) {
+                Expression<Integer> prefixFirst = cb.<Integer>selectCase()
+                        .when(numericPrefixMatch(root, cb, criteria), 0)
+                        .otherwise(1);
+                return List.of(cb.asc(prefixFirst), cb.asc(root.get("nik")));
+            }
+            Expression<Double> score = cb.function("greatest", Double.class,
+                    cb.function("similarity", Double.class, cb.lower(root.get("nama")), cb.literal(criteria.q())),
+                    cb.function("similarity", Double.class,
+                            cb.lower(cb.coalesce(root.get("alamat"), "")), cb.literal(criteria.q())));
+            return List.of(cb.desc(score), cb.asc(root.get(ID)));
+        };
+    }
+
+    private static Predicate numericPrefixMatch(Root<Warga> root, CriteriaBuilder cb, WargaCriteria criteria) {
+        String prefixPattern = criteria.q() + "%";
+        return cb.or(cb.like(root.get("nik"), prefixPattern), cb.like(root.get(PHONE_NUMBER), prefixPattern));
+    }
+
+    /**
+     * true jika nilai cursor cocok dengan tipe kolom sort-nya (NULL hanya untuk kolom nullable).
+     * Token cursor bisa dimanipulasi client; tanpa cek ini tipe yang salah baru gagal saat query.
+     */
+    public static boolean isValidCursor(KeysetCursor cursor) {
+        Class<?> type = CURSOR_VALUE_TYPES.get(cursor.sortField());
+        if (type == null) {
+            return false;
+        }
+        return cursor.value() == null
+                ? NULLABLE_SORT_FIELDS.contains(cursor.sortField())
+                : type.isInstance(cursor.value());
+    }
+
+    /**
+     * Keyset predicate: baris yang posisinya setelah cursor pada urutan (sortField, id).
+     * Bentuk {@code field >= v AND (field > v OR id > lastId)} dipakai supaya PostgreSQL
+     * bisa melakukan index range scan pada (sortField, id).
+     */
+    public static Specification<Warga> after(KeysetCursor cursor) {
+        return (root, query, cb) -> {
+            boolean desc = "desc".equals(cursor.direction());
+            Path<Comparable<Object>> field = root.get(cursor.sortField());
+            Path<UUID> id = root.get(ID);
+            @SuppressWarnings("unchecked")
+            Comparable<Object> value = (Comparable<Object>) cursor.value();
+
+            if (UNIQUE_SORT_FIELDS.contains(cursor.sortField())) {
+                return desc ? cb.lessThan(field, value) : cb.greaterThan(field, value);
+            }
+
+            boolean nullable = NULLABLE_SORT_FIELDS.contains(cursor.sortField());
+            if (value == null) {
+                // Cursor berada di blok NULL
+                Predicate sameNullBlock = cb.and(cb.isNull(field), beyond(cb, id, cursor.id(), desc));
+                // ASC: NULL di akhir -> hanya sisa blok NULL; DESC: NULL di awal -> lanjut ke semua nilai non-NULL
+                return desc ? cb.or(sameNullBlock, cb.isNotNull(field)) : sameNullBlock;
+            }
+
+            Predicate bound = desc ? cb.lessThanOrEqualTo(field, value) : cb.greaterThanOrEqualTo(field, value);
+            Predicate strictlyAfter = desc ? cb.lessThan(field, value) : cb.greaterThan(field, value);
+            Predicate seek = cb.and(bound, cb.or(strictlyAfter, beyond(cb, id, cursor.id(), desc)));
+            if (nullable && !desc) {
+                // ASC: blok NULL masih ada di belakang
+                return cb.or(seek, cb.isNull(field));
+            }
+            return seek;
+        };
+    }
+
+    private static Predicate beyond(CriteriaBuilder cb, Path<UUID> id, UUID lastId, boolean desc) {
+        return desc ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId);
+    }
+}
@@ -0,0 +1,9 @@
+package com.yolifay.identityservice.repository;
+
+import com.yolifay.identityservice.entity.Warga;
+
+/**
+ * Hasil UPDATE ... RETURNING: baris setelah update + nomor telepon sebelum update
+ * (dibutuhkan untuk invalidasi lookup cache) dan rw / rt sebelum update (statistik RT/RW).
+ */
+public record WargaUpdateResult(Warga warga, String previousPhoneNumber, Integer previousRw, Integer previousRt) {}
@@ -0,0 +1,292 @@
+package com.yolifay.identityservice.service;
+
+import com.yolifay.identityservice.common.QueryMetrics;
+import com.yolifay.identityservice.dto.WargaChangeEvent;
+import com.yolifay.identityservice.dto.WargaChangeFeedResponse;
+import com.yolifay.identityservice.exception.BadRequestException;
+import com.yolifay.identityservice.exception.ChangeFeedExpiredException;
+import com.yolifay.identityservice.repository.WargaOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Change feed warga dari outbox (ditulis trigger di transaksi yang sama dengan perubahannya).
+ *
+ * Relay berkala mempublish baris outbox (mengisi seq urut commit) lalu membangunkan pembaca yang
+ * menunggu. Long-poll (GET /warga/changes) dan SSE (GET /warga/changes/stream) menunggu di virtual
+ * thread, bukan di thread Tomcat, dan selalu membaca dari tabel outbox berdasarkan seq sehingga
+ * instance yang relay-nya tidak aktif tetap melayani feed yang sama.
+ *
+ * Consumer yang mengirim {@code consumer} dianggap sudah memproses semua seq sampai {@code since}
+ * (long-poll) atau sampai event terakhir yang terkirim (SSE). Outbox dipangkas sampai ack terkecil
+ * consumer aktif, dan apa pun yang lebih tua dari retention.
+ */
+@Slf4j
+@Service
+public class WargaChangeFeedService {
+    private final WargaOutboxRepository wargaOutboxRepository;
+    private final QueryMetrics queryMetrics;
+    private final int relayBatchSize;
+    private final int maxPageSize;
+    private final Duration maxWait;
+    private final Duration heartbeat;
+    private final Duration sseTimeout;
+    private final Duration retention;
+    private final Duration consumerExpiry;
+    private final int pruneBatchSize;
+
+    // pembaca feed menunggu di virtual thread; blocking di sini tidak memakan thread Tomcat
+    private final ExecutorService waiters = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final Condition published = publishLock.newCondition();
+    private volatile long latestSeq;
+    private final Set<SseEmitter> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Counter publishedEvents;
+    private final Counter prunedEvents;
+
+    public WargaChangeFeedService(WargaOutboxRepository wargaOutboxRepository,
+                                  QueryMetrics queryMetrics,
+                                  @Value("${warga.outbox.relay-batch-size:500}") int relayBatchSize,
+                                  @Value("${warga.outbox.max-page-size:1000}") int maxPageSize,
+                                  @Value("${warga.outbox.max-wait:30s}") Duration maxWait,
+                                  @Value("${warga.outbox.heartbeat:15s}") Duration heartbeat,
+                                  @Value("${warga.outbox.sse-timeout:30m}") Duration sseTimeout,
+                                  @Value("${warga.outbox.retention:7d}") Duration retention,
+                                  @Value("${warga.outbox.consumer-expiry:7d}") Duration consumerExpiry,
+                                  @Value("${warga.outbox.prune-batch-size:5000}") int pruneBatchSize,
+                                  MeterRegistry meterRegistry) {
+        this.wargaOutboxRepository = wargaOutboxRepository;
+        this.queryMetrics = queryMetrics;
+        this.relayBatchSize = relayBatchSize;
+        this.maxPageSize = maxPageSize;
+        this.maxWait = maxWait;
+        this.heartbeat = heartbeat;
+        this.sseTimeout = sseTimeout;
+        this.retention = retention;
+        this.consumerExpiry = consumerExpiry;
+        this.pruneBatchSize = pruneBatchSize;
+        this.publishedEvents = Counter.builder("warga.outbox.published").register(meterRegistry);
+        this.prunedEvents = Counter.builder("warga.outbox.pruned").register(meterRegistry);
+        Gauge.builder("warga.outbox.latest.seq", this, s -> s.latestSeq).register(meterRegistry);
+        Gauge.builder("warga.outbox.subscribers", subscribers, Set::size).register(meterRegistry);
+    }
+
+    /**
+     * Long-poll: perubahan setelah {@code since} (null = mulai dari seq terakhir). Jika belum ada,
+     * tunggu maksimal {@code wait} lalu kembalikan list kosong dengan nextSince yang sama.
+     */
+    public CompletableFuture<WargaChangeFeedResponse> poll(Long since, Integer limit, Duration wait, String consumer) {
+        int pageSize = pageSize(limit);
+        long from = startingPoint(since, consumer);
+        Duration timeout = wait == null || wait.isNegative() ? Duration.ZERO : min(wait, maxWait);
+
+        return CompletableFuture.supplyAsync(() -> {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (true) {
+                long observed = latestSeq;
+                // limit + 1 untuk mengetahui hasMore tanpa query count
+                List<WargaChangeEvent> rows = findSince(from, pageSize + 1);
+                long remaining = deadline - System.nanoTime();
+                if (!rows.isEmpty() || remaining <= 0 || !awaitPublished(observed, remaining)) {
+                    if (rows.isEmpty() && remaining > 0) {
+                        // waktu tunggu habis di awaitPublished: cek sekali lagi sebelum menyerah
+                        rows = findSince(from, pageSize + 1);
+                    }
+                    boolean hasMore = rows.size() > pageSize;
+                    List<WargaChangeEvent> page = hasMore ? rows.subList(0, pageSize) : rows;
+                    long nextSince = page.isEmpty() ? from : page.get(page.size() - 1).seq();
+                    return new WargaChangeFeedResponse(List.copyOf(page), nextSince, hasMore);
+                }
+            }
+        }, waiters);
+    }
+
+    /** SSE: kirim backlog setelah {@code since} (null = dari seq terakhir) lalu setiap perubahan baru. */
+    public SseEmitter subscribe(Long since, String consumer) {
+        long from = startingPoint(since, consumer);
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        Runnable close = () -> {
+            open.set(false);
+            subscribers.remove(emitter);
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+        emitter.onError(e -> close.run());
+        subscribers.add(emitter);
+
+        waiters.execute(() -> stream(emitter, open, from, consumer));
+        log.info("[changes] subscribed consumer={} since={} subscribers={}", consumer, from, subscribers.size());
+        return emitter;
+    }
+
+    private void stream(SseEmitter emitter, AtomicBoolean open, long since, String consumer) {
+        long cursor = since;
+        try {
+            while (open.get()) {
+                long observed = latestSeq;
+                List<WargaChangeEvent> rows = findSince(cursor, maxPageSize);
+                if (rows.isEmpty()) {
+                    if (!awaitPublished(observed, heartbeat.toNanos())) {
+                        // komentar SSE: menjaga koneksi tetap hidup lewat proxy dan mendeteksi client yang putus
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                    continue;
+                }
+                for (WargaChangeEvent change : rows) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.seq()))
+                            .name("change")
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+                cursor = rows.get(rows.size() - 1).seq();
+                if (consumer != null) {
+                    wargaOutboxRepository.ack(consumer, cursor);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.info("[changes] subscriber closed consumer={} at={} reason={}", consumer, cursor, e.getMessage());
+            close(emitter, null);
+        } catch (RuntimeException e) {
+            log.warn("[changes] stream failed consumer={} at={}: {}", consumer, cursor, e.getMessage());
+            close(emitter, e);
+        }
+    }
+
+    /** Publish baris outbox yang sudah commit, lalu bangunkan pembaca jika ada seq baru (dari instance mana pun). */
+    @Scheduled(fixedDelayString = "${warga.outbox.relay-interval:200ms}")
+    public void relay() {
+        try {
+            int publishedRows;
+            do {
+                publishedRows = wargaOutboxRepository.publishPending(relayBatchSize);
+                if (publishedRows > 0) {
+                    publishedEvents.increment(publishedRows);
+                }
+            } while (publishedRows == relayBatchSize);
+            signal(wargaOutboxRepository.latestSeq());
+        } catch (RuntimeException e) {
+            log.warn("[changes] relay failed: {}", e.getMessage());
+        }
+    }
+
+    /** Pangkas perubahan yang sudah di-ack semua consumer aktif atau lebih tua dari retention. */
+    @Scheduled(fixedDelayString = "${warga.outbox.prune-interval:1m}",
+               initialDelayString = "${warga.outbox.prune-interval:1m}")
+    public void prune() {
+        Instant now = Instant.now();
+        Long minAcked = wargaOutboxRepository.minAckedSeq(now.minus(consumerExpiry));
+        long ackedThrough = minAcked == null ? 0 : minAcked;
+        Instant publishedBefore = now.minus(retention);
+        long pruned = 0;
+        int deleted;
+        do {
+            deleted = queryMetrics.record("outbox.prune",
+                    () -> wargaOutboxRepository.pruneChunk(ackedThrough, publishedBefore, pruneBatchSize), n -> n);
+            pruned += deleted;
+        } while (deleted == pruneBatchSize);
+        if (pruned > 0) {
+            prunedEvents.increment(pruned);
+            log.info("[changes] pruned={} ackedThrough={} publishedBefore={}", pruned, ackedThrough, publishedBefore);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(SseEmitter::complete);
+        waiters.shutdownNow();
+    }
+
+    private long startingPoint(Long since, String consumer) {
+        if (since == null) {
+            return latestSeq > 0 ? latestSeq : wargaOutboxRepository.latestSeq();
+        }
+        if (since < 0) {
+            throw new BadRequestException("since tidak boleh negatif");
+        }
+        long prunedThrough = wargaOutboxRepository.prunedThrough();
+        if (since < prunedThrough) {
+            throw new ChangeFeedExpiredException("Perubahan sampai seq " + prunedThrough
+                    + " sudah dipangkas, since " + since + " tidak bisa dilanjutkan");
+        }
+        if (consumer != null) {
+            // since = semua perubahan sampai seq ini sudah diproses consumer
+            wargaOutboxRepository.ack(consumer, since);
+        }
+        return since;
+    }
+
+    private List<WargaChangeEvent> findSince(long since, int limit) {
+        return queryMetrics.record("outbox.since", () -> wargaOutboxRepository.findSince(since, limit), List::size);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) return Math.min(100, maxPageSize);
+        if (limit < 1) throw new BadRequestException("limit minimal 1");
+        return Math.min(limit, maxPageSize);
+    }
+
+    private void signal(long seq) {
+        if (seq <= latestSeq) return;
+        publishLock.lock();
+        try {
+            latestSeq = seq;
+            published.signalAll();
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /** Tunggu sampai ada seq di atas {@code observed}; false jika waktu habis. */
+    private boolean awaitPublished(long observed, long timeoutNanos) {
+        publishLock.lock();
+        try {
+            long remaining = timeoutNanos;
+            while (latestSeq <= observed) {
+                if (remaining <= 0) return false;
+                remaining = published.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private static void close(SseEmitter emitter, Throwable error) {
+        try {
+            if (error == null) emitter.complete();
+            else emitter.completeWithError(error);
+        } catch (IllegalStateException ignored) {
+            // sudah selesai
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
@@ -0,0 +1,151 @@
+package com.yolifay.identityservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yolifay.identityservice.dto.filter.WargaFilter;
+import com.yolifay.identityservice.exception.BadRequestException;
+import com.yolifay.identityservice.repository.WargaCriteria;
+import com.yolifay.identityservice.repository.WargaJdbcRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Export warga langsung dari ResultSet ke response (tanpa entity / WargaResponse).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WargaExportService {
+    private final WargaJdbcRepository wargaJdbcRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${warga.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        /** Default NDJSON; format lain ditolak. */
+        public static Format from(String value) throws BadRequestException {
+            if (value == null || value.isBlank()) return NDJSON;
+            return switch (value.trim().toLowerCase()) {
+                case "ndjson" -> NDJSON;
+                case "csv"    -> CSV;
+                default -> throw new BadRequestException("Format export harus ndjson atau csv");
+            };
+        }
+    }
+
+    public void export(String q, WargaFilter wargaFilter, Format format, OutputStream out) throws IOException {
+        log.info("Start export warga format={}", format);
+        long started = System.nanoTime();
+        WargaCriteria criteria = WargaCriteria.of(q, wargaFilter);
+
+        long rows;
+        try {
+            rows = switch (format) {
+                case NDJSON -> writeNdjson(criteria, out);
+                case CSV    -> writeCsv(criteria, out);
+            };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("End export warga format={} rows={} tookMs={}", format, rows, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private long writeNdjson(WargaCriteria criteria, OutputStream out) throws IOException {
+        long[] rows = {0};
+        // output stream milik servlet container; jangan ditutup di sini
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            gen.setRootValueSeparator(null);
+            wargaJdbcRepository.streamAll(criteria, fetchSize, rs -> {
+                try {
+                    gen.writeStartObject();
+                    gen.writeStringField("id", rs.getString("id"));
+                    gen.writeStringField("nik", rs.getString("nik"));
+                    gen.writeStringField("nama", rs.getString("nama"));
+                    gen.writeStringField("phoneNumber", rs.getString("phone_number"));
+                    gen.writeStringField("alamat", rs.getString("alamat"));
+                    writeNullableInt(gen, "rt", rs, "rt");
+                    writeNullableInt(gen, "rw", rs, "rw");
+                    gen.writeEndObject();
+                    gen.writeRaw('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return rows[0];
+    }
+
+    private long writeCsv(WargaCriteria criteria, OutputStream out) throws IOException {
+        long[] rows = {0};
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,nik,nama,phone_number,alamat,rt,rw\n");
+        wargaJdbcRepository.streamAll(criteria, fetchSize, rs -> {
+            try {
+                writer.write(rs.getString("id"));
+                writer.write(',');
+                writer.write(csv(rs.getString("nik")));
+                writer.write(',');
+                writer.write(csv(rs.getString("nama")));
+                writer.write(',');
+                writer.write(csv(rs.getString("phone_number")));
+                writer.write(',');
+                writer.write(csv(rs.getString("alamat")));
+                writer.write(',');
+                writer.write(csv(rs.getString("rt")));
+                writer.write(',');
+                writer.write(csv(rs.getString("rw")));
+                writer.write('\n');
+                rows[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return rows[0];
+    }
+
+    private static void writeNullableInt(JsonGenerator gen, String field, ResultSet rs, String column)
+            throws IOException, SQLException {
+        int value = rs.getInt(column);
+        if (rs.wasNull()) {
+            gen.writeNullField(field);
+        } else {
+            gen.writeNumberField(field, value);
+        }
+    }
+
+    /** Quote field CSV (RFC 4180) jika mengandung koma, kutip, atau baris baru. */
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,74 @@
+package com.yolifay.identityservice.service;
+
+import com.yolifay.identityservice.cache.WargaCountCache;
+import com.yolifay.identityservice.cache.WargaKeyFilter;
+import com.yolifay.identityservice.cache.WargaLookupCache;
+import com.yolifay.identityservice.cache.WargaStats;
+import com.yolifay.identityservice.common.QueryMetrics;
+import com.yolifay.identityservice.dto.WargaImportSummary;
+import com.yolifay.identityservice.exception.BadRequestException;
+import com.yolifay.identityservice.repository.WargaImportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Import CSV massal (re-sync dari Dukcapil) lewat PostgreSQL COPY.
+ * Kolom CSV (dengan header): nik,nama,phone_number,alamat,rt,rw
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WargaImportService {
+    private final WargaImportRepository wargaImportRepository;
+    private final WargaCountCache wargaCountCache;
+    private final WargaLookupCache wargaLookupCache;
+    private final WargaKeyFilter wargaKeyFilter;
+    private final WargaStats wargaStats;
+    private final QueryMetrics queryMetrics;
+
+    @Value("${warga.import.max-rejects:100}")
+    private int maxRejects;
+
+    @Transactional
+    public WargaImportSummary importCsv(InputStream csv) throws BadRequestException {
+        log.info("Start import warga csv");
+        long started = System.nanoTime();
+
+        // 1. COPY ke staging table (semua kolom TEXT supaya data rusak tidak menggagalkan COPY)
+        wargaImportRepository.createStage();
+        long received;
+        try {
+            received = queryMetrics.record("import.copy", () -> wargaImportRepository.copyIntoStage(csv), n -> n);
+        } catch (DataAccessException e) {
+            throw new BadRequestException("CSV tidak valid: " + e.getMostSpecificCause().getMessage());
+        }
+
+        // 2. Validasi + dedup, lalu 3. merge ke warga
+        long rejected = wargaImportRepository.rejectInvalidRows();
+        long[] merged = queryMetrics.record("import.merge", wargaImportRepository::mergeIntoWarga, m -> m[0] + m[1]);
+
+        if (merged[0] + merged[1] > 0) {
+            wargaCountCache.invalidateAll();
+            wargaLookupCache.invalidateAll();
+            WargaKeyFilter.KeySink keys = wargaKeyFilter.bulkAdd();
+            wargaImportRepository.streamAcceptedKeys(rs -> keys.put(rs.getString(1), rs.getString(2)));
+            // rt / rw lama baris yang di-upsert tidak diketahui: statistik RT/RW dihitung ulang dari DB
+            wargaStats.requestReconcile();
+        }
+
+        long tookMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        long rowsPerSecond = received * 1000 / tookMs;
+        log.info("End import warga csv received={} inserted={} updated={} rejected={} tookMs={} rowsPerSecond={}",
+                received, merged[0], merged[1], rejected, tookMs, rowsPerSecond);
+
+        return new WargaImportSummary(received, merged[0], merged[1], rejected, tookMs, rowsPerSecond,
+                rejected > 0 ? wargaImportRepository.findRejects(maxRejects) : List.of());
+    }
+}
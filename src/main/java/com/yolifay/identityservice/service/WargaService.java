@@ -1,47 +1,113 @@
 package com.yolifay.identityservice.service;
 
+import com.yolifay.identityservice.cache.WargaCountCache;
+import com.yolifay.identityservice.cache.WargaKeyFilter;
+import com.yolifay.identityservice.cache.WargaListFlights;
+import com.yolifay.identityservice.cache.WargaLookupCache;
+import com.yolifay.identityservice.cache.WargaStats;
+import com.yolifay.identityservice.common.ListRequestLog;
+import com.yolifay.identityservice.common.QueryMetrics;
+import com.yolifay.identityservice.config.ReplicaRoutingDataSource;
+import com.yolifay.identityservice.dto.BatchItemStatus;
+import com.yolifay.identityservice.dto.WargaBatchCreateResponse;
+import com.yolifay.identityservice.dto.WargaBatchItemResult;
+import com.yolifay.identityservice.dto.WargaBulkDeleteRequest;
+import com.yolifay.identityservice.dto.WargaBulkDeleteResponse;
 import com.yolifay.identityservice.dto.WargaCreateRequest;
+import com.yolifay.identityservice.dto.WargaNikBatchRequest;
+import com.yolifay.identityservice.dto.WargaNikBatchResponse;
 import com.yolifay.identityservice.dto.WargaResponse;
+import com.yolifay.identityservice.dto.WargaStatsResponse;
+import com.yolifay.identityservice.dto.WargaUpdateRequest;
+import com.yolifay.identityservice.dto.filter.WargaFilter;
+import com.yolifay.identityservice.dto.pagination.BasePaging;
+import com.yolifay.identityservice.dto.pagination.CountStrategy;
+import com.yolifay.identityservice.dto.pagination.CursorEnvelope;
+import com.yolifay.identityservice.dto.pagination.KeysetCursor;
+import com.yolifay.identityservice.dto.pagination.ListWargaCursorRequest;
 import com.yolifay.identityservice.dto.pagination.ListWargaRequest;
 import com.yolifay.identityservice.dto.pagination.PageEnvelope;
 import com.yolifay.identityservice.dto.pagination.SortMeta;
 import com.yolifay.identityservice.entity.Warga;
+import com.yolifay.identityservice.exception.BadRequestException;
 import com.yolifay.identityservice.exception.ConflictException;
 import com.yolifay.identityservice.exception.DataNotFoundException;
+import com.yolifay.identityservice.exception.ServiceUnavailableException;
+import com.yolifay.identityservice.exception.VersionConflictException;
+import com.yolifay.identityservice.repository.WargaCellCount;
+import com.yolifay.identityservice.repository.WargaChangeMarker;
+import com.yolifay.identityservice.repository.WargaCriteria;
+import com.yolifay.identityservice.repository.WargaDeleteResult;
+import com.yolifay.identityservice.repository.WargaJdbcRepository;
+import com.yolifay.identityservice.repository.WargaOrdering;
 import com.yolifay.identityservice.repository.WargaRepository;
-import jakarta.persistence.criteria.Predicate;
+import com.yolifay.identityservice.repository.WargaSpecifications;
+import com.yolifay.identityservice.repository.WargaUpdateResult;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WargaService {
     private final WargaRepository wargaRepository;
+    private final WargaJdbcRepository wargaJdbcRepository;
+    private final WargaCountCache wargaCountCache;
+    private final WargaLookupCache wargaLookupCache;
+    private final WargaKeyFilter wargaKeyFilter;
+    private final WargaStats wargaStats;
+    private final Validator validator;
+    private final QueryMetrics queryMetrics;
+    private final ListRequestLog listRequestLog;
+    private final WargaListFlights wargaListFlights;
+    private final PlatformTransactionManager transactionManager;
+    private volatile boolean changeMarkerMissing;
     private static final String PHONE_NUMBER = "phoneNumber";
     private static final String CREATED_AT = "createdAt";
+    private static final String RELEVANCE = "relevance";
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    @Value("${warga.batch.max-size:1000}")
+    private int batchMaxSize;
+
+    @Value("${warga.lookup-batch.max-size:100}")
+    private int lookupBatchMaxSize;
+
+    @Value("${warga.list.max-offset:1000000}")
+    private long listMaxOffset;
+
+    @Value("${warga.bulk-delete.chunk-size:1000}")
+    private int bulkDeleteChunkSize;
+
+    @Value("${warga.bulk-delete.max-niks:10000}")
+    private int bulkDeleteMaxNiks;
 
     @Transactional
     public WargaResponse createWarga(WargaCreateRequest req) throws ConflictException {
         log.info("Start create warga: {}", req.nama());
 
-        wargaRepository.findByNik(req.nik()).ifPresent(w -> {
-            throw new ConflictException("NIK sudah terdaftar");
-        });
-        wargaRepository.findByPhoneNumber(req.phoneNumber()).ifPresent(w -> {
-            throw new ConflictException("Nomor telepon sudah terdaftar");
-        });
-
         Warga entity = Warga.builder()
                 .nik(req.nik())
                 .nama(req.nama())
@@ -51,143 +117,575 @@ public class WargaService {
                 .alamat(req.alamat())
                 .build();
 
-        Warga saved = wargaRepository.save(entity);
+        // tanpa pre-check: unique constraint nik / phone_number yang menjadi sumber kebenaran
+        Warga saved;
+        try {
+            saved = queryMetrics.record("insert", () -> wargaRepository.insert(entity), w -> 1);
+        } catch (DataIntegrityViolationException e) {
+            throw toConflict(e);
+        }
+        wargaCountCache.invalidateAll();
+        // buang negative entry NIK / nomor telepon yang mungkin sudah ter-cache
+        wargaLookupCache.evict(saved.getNik(), saved.getPhoneNumber());
+        wargaKeyFilter.add(saved.getNik(), saved.getPhoneNumber());
+        wargaStats.added(saved.getRw(), saved.getRt());
 
         log.info("End create warga: {}", saved.getNama());
         return mapToResponse(saved);
     }
 
-    @Transactional(readOnly = true)
-    public PageEnvelope<WargaResponse> getAllWarga(ListWargaRequest req) {
-        log.info("Start get all warga");
-
-        // 1. Normalize sort and direction
-        String sortField = normalizeSortField(req.paging().sortField());
-        Sort.Direction sortDir = normalizeSortDirection(req.paging().sortDirection());
-
-        Pageable pageable = PageRequest.of(req.paging().pageIndex(), req.paging().perpage(), Sort.by(sortDir, sortField));
-
-        // 2. Build Specification (WHERE)
-        Specification<Warga> spec = ((root, query, criteriaBuilder) -> {
-            List<Predicate> filters = new ArrayList<>();
-
-            // 2a. Free text search (q)
-            if (req.paging().q() != null && !req.paging().q().isBlank()) {
-                String likePattern = "%" + req.paging().q().trim().toLowerCase() + "%";
-                Predicate any = criteriaBuilder.or(
-                        criteriaBuilder.like(criteriaBuilder.lower(root.get("nik")), likePattern),
-                        criteriaBuilder.like(criteriaBuilder.lower(root.get("nama")), likePattern),
-                        criteriaBuilder.like(criteriaBuilder.lower(root.get(PHONE_NUMBER)), likePattern),
-                        criteriaBuilder.like(criteriaBuilder.lower(root.get("alamat")), likePattern)
-                );
-                filters.add(any);
-                log.info("[filter] q='{}' on [nik,nama,alamat,phoneNumber] (LOWER LIKE)", req.paging().q().trim());
+    /**
+     * Create banyak warga sekaligus. Duplikat dicek dengan satu query IN per kolom, insert memakai
+     * satu statement ON CONFLICT DO NOTHING. Item yang invalid / konflik (termasuk yang kalah race
+     * dengan insert bersamaan) tidak menggagalkan item lainnya.
+     */
+    @Transactional
+    public WargaBatchCreateResponse createWargaBatch(List<WargaCreateRequest> reqs) throws BadRequestException {
+        if (reqs == null || reqs.isEmpty()) {
+            throw new BadRequestException("Batch warga tidak boleh kosong");
+        }
+        if (reqs.size() > batchMaxSize) {
+            throw new BadRequestException("Maksimal " + batchMaxSize + " warga per batch");
+        }
+        log.info("Start create warga batch: size={}", reqs.size());
+
+        WargaBatchItemResult[] results = new WargaBatchItemResult[reqs.size()];
+
+        // 1. Validasi per item (constraint yang sama dengan POST /warga)
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < reqs.size(); i++) {
+            WargaCreateRequest req = reqs.get(i);
+            String violation = req == null ? "Item kosong" : validator.validate(req).stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .findFirst()
+                    .orElse(null);
+            if (violation != null) {
+                results[i] = new WargaBatchItemResult(i, req == null ? null : req.nik(), BatchItemStatus.INVALID, violation, null);
             } else {
-                log.info("[filter] no q");
+                valid.add(i);
             }
+        }
 
-            // 2b. Filter by RT
-            Integer rt = req.wargaFilter() != null ? req.wargaFilter().getRt() : null;
-            if (rt != null && rt > 0) {
-                Predicate byRt = criteriaBuilder.equal(root.get("rt"), rt);
-                filters.add(byRt);
-                log.info("[filter] rt={}", rt);
-            } else {
-                log.info("[filter] no rt");
-            }
+        // 2. Cek duplikat di DB: satu query IN per kolom, hanya untuk key yang "mungkin ada" menurut key filter
+        List<String> candidateNiks = valid.stream().map(i -> reqs.get(i).nik())
+                .distinct().filter(wargaKeyFilter::mightContainNik).toList();
+        List<String> candidatePhoneNumbers = valid.stream().map(i -> reqs.get(i).phoneNumber())
+                .distinct().filter(wargaKeyFilter::mightContainPhoneNumber).toList();
+        Set<String> existingNiks = new HashSet<>();
+        Set<String> existingPhoneNumbers = new HashSet<>();
+        if (!candidateNiks.isEmpty()) {
+            existingNiks.addAll(queryMetrics.record("existingNiks",
+                    () -> wargaRepository.findExistingNiks(candidateNiks), List::size));
+            wargaKeyFilter.recordFalsePositives(WargaKeyFilter.Key.NIK, candidateNiks.size() - existingNiks.size());
+        }
+        if (!candidatePhoneNumbers.isEmpty()) {
+            existingPhoneNumbers.addAll(queryMetrics.record("existingPhoneNumbers",
+                    () -> wargaRepository.findExistingPhoneNumbers(candidatePhoneNumbers), List::size));
+            wargaKeyFilter.recordFalsePositives(WargaKeyFilter.Key.PHONE_NUMBER,
+                    candidatePhoneNumbers.size() - existingPhoneNumbers.size());
+        }
 
-            // 2c. Filter by RW
-            Integer rw = req.wargaFilter() != null ? req.wargaFilter().getRw() : null;
-            if (rw != null && rw > 0) {
-                Predicate byRw = criteriaBuilder.equal(root.get("rw"), rw);
-                filters.add(byRw);
-                log.info("[filter] rw={}", rw);
-            } else {
-                log.info("[filter] no rw");
+        // 3. Susun entity baru; duplikat di dalam batch yang sama juga dianggap konflik
+        Set<String> batchNiks = new HashSet<>();
+        Set<String> batchPhoneNumbers = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        List<Warga> entities = new ArrayList<>();
+        for (int i : valid) {
+            WargaCreateRequest req = reqs.get(i);
+            String conflict = null;
+            if (existingNiks.contains(req.nik()) || batchNiks.contains(req.nik())) {
+                conflict = "NIK sudah terdaftar";
+            } else if (existingPhoneNumbers.contains(req.phoneNumber()) || batchPhoneNumbers.contains(req.phoneNumber())) {
+                conflict = "Nomor telepon sudah terdaftar";
+            }
+            if (conflict != null) {
+                results[i] = new WargaBatchItemResult(i, req.nik(), BatchItemStatus.CONFLICT, conflict, null);
+                continue;
             }
+            // NIK dan nomor telepon baru "dipakai" setelah kedua cek lolos: item yang ditolak
+            // karena nomor telepon tidak boleh membuat item berikutnya dengan NIK yang sama ikut ditolak
+            batchNiks.add(req.nik());
+            batchPhoneNumbers.add(req.phoneNumber());
+            accepted.add(i);
+            entities.add(Warga.builder()
+                    .nik(req.nik())
+                    .nama(req.nama())
+                    .phoneNumber(req.phoneNumber())
+                    .rt(req.rt())
+                    .rw(req.rw())
+                    .alamat(req.alamat())
+                    .build());
+        }
 
-            // Combine all filters with AND
-            if (filters.isEmpty()) {
-                log.info("[filter.final] outcome=match_all reason=no_active_filters");
-                return  criteriaBuilder.conjunction(); // match all
-            } else if (filters.size() == 1) {
-                log.info("[filter.final] outcome=single active_filters={}", filters.size());
-                return filters.getFirst();
-            } else {
-                log.info("[filter.final] outcome=multiple active_filters={}", filters.size());
-                return criteriaBuilder.and(filters.toArray(new Predicate[0]));
+        // 4. Insert dalam satu statement ON CONFLICT DO NOTHING: duplikat yang lolos cek di atas karena
+        //    insert bersamaan dari request lain hanya membuat item itu CONFLICT, bukan menggagalkan batch
+        List<Warga> inserted = queryMetrics.record("insertBatch",
+                () -> wargaJdbcRepository.insertIgnoringConflicts(entities), List::size);
+        Map<String, Warga> insertedByNik = new HashMap<>();
+        inserted.forEach(w -> insertedByNik.put(w.getNik(), w));
+        Set<String> racedNiks = new HashSet<>();
+        if (inserted.size() < entities.size()) {
+            List<String> lost = entities.stream().map(Warga::getNik).filter(nik -> !insertedByNik.containsKey(nik)).toList();
+            // yang kalah race: bedakan bentrok NIK dan bentrok nomor telepon untuk pesan per item
+            racedNiks.addAll(queryMetrics.record("existingNiks", () -> wargaRepository.findExistingNiks(lost), List::size));
+        }
+        for (int k = 0; k < entities.size(); k++) {
+            Warga entity = entities.get(k);
+            int i = accepted.get(k);
+            Warga saved = insertedByNik.get(entity.getNik());
+            if (saved == null) {
+                String conflict = racedNiks.contains(entity.getNik()) ? "NIK sudah terdaftar" : "Nomor telepon sudah terdaftar";
+                results[i] = new WargaBatchItemResult(i, entity.getNik(), BatchItemStatus.CONFLICT, conflict, null);
+                continue;
             }
-        });
+            results[i] = new WargaBatchItemResult(i, saved.getNik(), BatchItemStatus.CREATED, null, mapToResponse(saved));
+            wargaLookupCache.evict(saved.getNik(), saved.getPhoneNumber());
+            wargaKeyFilter.add(saved.getNik(), saved.getPhoneNumber());
+            wargaStats.added(saved.getRw(), saved.getRt());
+        }
+        if (!inserted.isEmpty()) {
+            wargaCountCache.invalidateAll();
+        }
+
+        List<WargaBatchItemResult> items = List.of(results);
+        int conflicts = (int) items.stream().filter(r -> r.status() == BatchItemStatus.CONFLICT).count();
+        int invalids = (int) items.stream().filter(r -> r.status() == BatchItemStatus.INVALID).count();
+        log.info("End create warga batch: created={} conflict={} invalid={}", inserted.size(), conflicts, invalids);
+        return new WargaBatchCreateResponse(items.size(), inserted.size(), conflicts, invalids, items);
+    }
+
+    /**
+     * List warga mode offset. Sengaja tanpa @Transactional: request identik yang datang bersamaan
+     * (sesudah normalisasi paging, sort dan filter) berbagi satu eksekusi count + slice lewat
+     * single-flight dan menunggu tanpa membuka transaksi / memegang koneksi. Hanya leader yang
+     * menjalankan query, di transaksi read-only.
+     */
+    public PageEnvelope<WargaResponse> getAllWarga(ListWargaRequest req) {
+        // offset sedalam ini memindai semua baris sebelumnya; halaman jauh dibaca lewat /warga/cursor
+        if (req.paging().offset() > listMaxOffset) {
+            throw new BadRequestException("page terlalu besar: maksimal offset (page - 1) * perpage = "
+                    + listMaxOffset + ", gunakan GET /warga/cursor");
+        }
+        ListRequestLog.Event event = listRequestLog.begin("offset");
+        try {
+            ListQuery query = normalizeListQuery(req.paging(), req.wargaFilter(), event);
+            PageEnvelope<WargaResponse> resp = wargaListFlights.page(query,
+                    () -> readOnlyTransaction().execute(status -> findAllWarga(query, req.paging())));
+            event.success(resp.numberOfElements(), resp.totalElements(), resp.hasNext());
+            return resp;
+        } catch (RuntimeException e) {
+            event.failure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Request list offset yang sudah dinormalisasi; sekaligus key single-flight (record, equals per nilai).
+     * primary ikut key supaya client yang di-pin ke primary (read-your-writes) tidak menerima hasil replica.
+     */
+    private record ListQuery(WargaCriteria criteria, String sortField, Sort.Direction sortDir, boolean byRelevance,
+                             int page, int perpage, CountStrategy count, boolean primary) {
+    }
 
-        // 3. Execute query (count & data)
-        Page<Warga> pageData = wargaRepository.findAll(spec, pageable);
-        log.info("[query] fetched contentCount={} totalElements={} totalPages={}",
-                pageData.getNumberOfElements(), pageData.getTotalElements(), pageData.getTotalPages());
+    private ListQuery normalizeListQuery(BasePaging paging, WargaFilter wargaFilter, ListRequestLog.Event event) {
+        // 1. Normalize sort and direction
+        String sortField = normalizeSortField(paging.sortField());
+        Sort.Direction sortDir = normalizeSortDirection(paging.sortDirection());
 
-        // 4. Map Entity to response DTO
-        List<WargaResponse> content = pageData.stream().map(this::mapToResponse).toList();
+        WargaCriteria criteria = WargaCriteria.of(paging.q(), wargaFilter);
 
-        // 5. Bungkus ke PageEnvelope + meta
-        SortMeta sortMeta = new SortMeta(sortField, sortDir.name().toLowerCase());
-        PageEnvelope<WargaResponse> resp = PageEnvelope.of(
+        // relevance hanya bermakna jika ada q; urutannya selalu paling relevan dulu
+        boolean byRelevance = RELEVANCE.equals(sortField) && criteria.q() != null;
+        if (RELEVANCE.equals(sortField) && !byRelevance) {
+            sortField = CREATED_AT;
+        }
+        if (byRelevance) {
+            sortDir = Sort.Direction.DESC;
+        }
+        event.criteria(criteria)
+                .sort(sortField, sortDir.name().toLowerCase())
+                .page(paging.page(), paging.perpage(), paging.count().name().toLowerCase());
+        recordSortFallback(event, paging.sortField(), sortField);
+
+        return new ListQuery(criteria, sortField, sortDir, byRelevance, paging.page(), paging.perpage(),
+                paging.count(), ReplicaRoutingDataSource.isPinnedToPrimary());
+    }
+
+    private PageEnvelope<WargaResponse> findAllWarga(ListQuery query, BasePaging paging) {
+        WargaCriteria criteria = query.criteria();
+        boolean byRelevance = query.byRelevance();
+        WargaOrdering ordering = byRelevance
+                ? WargaSpecifications.orderByRelevance(criteria)
+                : WargaOrdering.of(Sort.by(query.sortDir(), query.sortField()));
+        SortMeta sortMeta = new SortMeta(query.sortField(), query.sortDir().name().toLowerCase());
+
+        // 2. Build Specification (WHERE); ordering hanya untuk data query, count tanpa ORDER BY
+        Specification<Warga> spec = WargaSpecifications.filter(criteria);
+
+        // 3. Execute query (count & data) sesuai count strategy; count dan data query diukur terpisah
+        String filter = criteria.shape();
+        if (paging.count() == CountStrategy.EXACT) {
+            long total = wargaCountCache.get(criteria,
+                    () -> queryMetrics.record("count", filter, () -> wargaRepository.count(spec), c -> 1));
+            List<WargaResponse> rows = paging.offset() < total
+                    ? queryMetrics.record("slice", filter,
+                            () -> wargaRepository.findResponseSlice(spec, ordering, paging.offset(), paging.perpage()), List::size)
+                    : List.of();
+            return PageEnvelope.of(paging, total, rows, sortMeta);
+        }
+
+        // Probe perpage + 1 baris untuk hasNext, tanpa COUNT(*)
+        List<WargaResponse> rows = queryMetrics.record("slice", filter,
+                () -> wargaRepository.findResponseSlice(spec, ordering, paging.offset(), paging.perpage() + 1), List::size);
+        boolean hasNext = rows.size() > paging.perpage();
+        if (hasNext) {
+            rows = rows.subList(0, paging.perpage());
+        }
+        Long estimated = paging.count() == CountStrategy.ESTIMATED ? estimateCount(criteria, spec) : null;
+        return PageEnvelope.ofSlice(paging, rows, hasNext, estimated, sortMeta);
+    }
+
+    /**
+     * List warga mode keyset (cursor): satu index range seek pada (sortField, id), tanpa COUNT query.
+     */
+    @Transactional(readOnly = true)
+    public CursorEnvelope<WargaResponse> getAllWargaCursor(ListWargaCursorRequest req) throws BadRequestException {
+        ListRequestLog.Event event = listRequestLog.begin("cursor");
+        try {
+            CursorEnvelope<WargaResponse> resp = findAllWargaCursor(req, event);
+            event.success(resp.numberOfElements(), null, resp.hasNext());
+            return resp;
+        } catch (RuntimeException e) {
+            event.failure(e);
+            throw e;
+        }
+    }
+
+    private CursorEnvelope<WargaResponse> findAllWargaCursor(ListWargaCursorRequest req, ListRequestLog.Event event)
+            throws BadRequestException {
+        // 1. Normalize sort and direction; skor relevansi tidak bisa dipakai sebagai keyset
+        String sortField = normalizeSortField(req.paging().sortField());
+        Sort.Direction sortDir = normalizeSortDirection(req.paging().sortDirection());
+        if (RELEVANCE.equals(sortField)) {
+            sortField = CREATED_AT;
+        }
+        String direction = sortDir.name().toLowerCase();
+
+        Sort sort = Sort.by(sortDir, sortField);
+        if (!WargaSpecifications.UNIQUE_SORT_FIELDS.contains(sortField)) {
+            sort = sort.and(Sort.by(sortDir, "id"));
+        }
+
+        // 2. Build Specification (WHERE) + posisi cursor
+        WargaCriteria criteria = WargaCriteria.of(req.paging().q(), req.wargaFilter());
+        int perpage = req.paging().perpage();
+        event.criteria(criteria)
+                .sort(sortField, direction)
+                .cursor(perpage, req.paging().after() != null);
+        recordSortFallback(event, req.paging().sortField(), sortField);
+
+        Specification<Warga> spec = WargaSpecifications.filter(criteria);
+        if (req.paging().after() != null) {
+            spec = spec.and(WargaSpecifications.after(decodeCursor(req.paging().after(), sortField, direction)));
+        }
+
+        // 3. Ambil perpage + 1 baris untuk mengetahui apakah masih ada halaman berikutnya
+        Specification<Warga> keysetSpec = spec;
+        Sort keysetSort = sort;
+        List<Warga> rows = queryMetrics.record("keyset", criteria.shape(),
+                () -> wargaRepository.findSlice(keysetSpec, keysetSort, 0, perpage + 1), List::size);
+        boolean hasNext = rows.size() > perpage;
+        if (hasNext) {
+            rows = rows.subList(0, perpage);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Warga last = rows.getLast();
+            nextCursor = new KeysetCursor(sortField, direction, sortValueOf(last, sortField), last.getId()).encode();
+        }
+
+        // 4. Map Entity to response DTO + bungkus ke CursorEnvelope
+        List<WargaResponse> content = rows.stream().map(WargaService::mapToResponse).toList();
+        return CursorEnvelope.of(
                 req.paging(),
-                pageData.getTotalElements(),
                 content,
-                sortMeta
+                nextCursor,
+                new SortMeta(sortField, direction)
         );
-        log.info("End get all warga");
-        return resp;
     }
 
-    @Transactional(readOnly = true)
+    /** sortField yang diminta tidak dipakai apa adanya (tidak didukung / relevance tanpa q) -> catat di event list. */
+    private static void recordSortFallback(ListRequestLog.Event event, String requested, String applied) {
+        if (requested != null && !requested.isBlank() && !requested.trim().equals(applied)) {
+            event.sortFallback(requested.trim());
+        }
+    }
+
+    /**
+     * Marker perubahan tabel untuk conditional GET list (ETag). Harus dibaca sebelum query list: write
+     * yang commit di antaranya hanya membuat client mengambil ulang, bukan data basi.
+     * Empty jika tabel marker (initdb/005_warga_change_marker.sql) belum ada di database: list tetap
+     * dilayani tanpa conditional GET, dan marker tidak dicoba lagi sampai aplikasi di-restart.
+     */
+    public Optional<WargaChangeMarker> getChangeMarker() {
+        if (changeMarkerMissing) {
+            return Optional.empty();
+        }
+        // di luar transaksi: error di dalam transaksi membuat commit-nya gagal
+        try {
+            return Optional.ofNullable(readOnlyTransaction().execute(status ->
+                    queryMetrics.record("changeMarker", wargaJdbcRepository::changeMarker, m -> 1)));
+        } catch (BadSqlGrammarException e) {
+            changeMarkerMissing = true;
+            log.warn("Tabel warga_change_marker tidak tersedia, ETag list dinonaktifkan "
+                    + "(jalankan initdb/005_warga_change_marker.sql lalu restart): {}", e.getMostSpecificCause().getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // tanpa @Transactional: cache hit tidak perlu koneksi, dan miss yang bersamaan untuk NIK yang sama
+    // menunggu satu load (single-flight di lookup cache) tanpa memegang koneksi masing-masing
     public WargaResponse getWargaByNik(String nik) throws DataNotFoundException {
         log.info("Start get warga by NIK: {}", nik);
 
-        Warga w = wargaRepository.findByNik(nik)
-                .orElseThrow(() -> new DataNotFoundException("Get Warga dengan NIK " + nik + " tidak dapat ditemukan"));
+        // key filter sengaja tidak dipakai di sini: filter hanya tahu write lewat JVM ini (bukan instance lain,
+        // SQL manual atau seeding), jadi "pasti tidak ada" darinya bisa salah dan berujung 404 palsu
+        Optional<WargaResponse> found = wargaLookupCache.getByNik(nik, this::loadByNik);
+        WargaResponse w = found.orElseThrow(() -> new DataNotFoundException("Get Warga dengan NIK " + nik + " tidak dapat ditemukan"));
 
         log.info("End get warga by NIK: {}", nik);
-        return mapToResponse(w);
+        return w;
+    }
+
+    /**
+     * Lookup banyak NIK sekaligus: dari lookup cache, dan yang belum ter-cache dimuat dengan satu query
+     * {@code nik = ANY(?)}. Seperti lookup satu NIK, key filter tidak dipakai untuk menjawab "tidak ada".
+     * Tanpa @Transactional: request yang seluruhnya cache hit tidak mengambil koneksi, dan loader
+     * sudah membaca dari primary dengan satu statement.
+     */
+    public WargaNikBatchResponse getWargaByNiks(WargaNikBatchRequest req) throws BadRequestException {
+        List<String> niks = req.niks().stream().distinct().toList();
+        if (niks.size() > lookupBatchMaxSize) {
+            throw new BadRequestException("Maksimal " + lookupBatchMaxSize + " NIK per lookup");
+        }
+        log.info("Start get warga by NIK batch: size={}", niks.size());
+
+        Map<String, Optional<WargaResponse>> cached = niks.isEmpty()
+                ? Map.of()
+                : wargaLookupCache.getAllByNik(niks, this::loadByNiks);
+
+        Map<String, WargaResponse> found = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String nik : niks) {
+            Optional<WargaResponse> w = cached.getOrDefault(nik, Optional.empty());
+            if (w.isPresent()) found.put(nik, w.get());
+            else missing.add(nik);
+        }
+
+        log.info("End get warga by NIK batch: found={} missing={}", found.size(), missing.size());
+        return new WargaNikBatchResponse(found, missing);
     }
 
     @Transactional
     public WargaResponse updateWarga(String nik, WargaCreateRequest req) throws DataNotFoundException, ConflictException {
         log.info("Start update warga with NIK: {}", nik);
 
-        Warga existingWarga = wargaRepository.findByNik(nik)
-                .orElseThrow(() -> new DataNotFoundException("Update Warga dengan NIK " + nik + " tidak ditemukan"));
+        // satu statement UPDATE ... RETURNING; nomor telepon bentrok ditolak oleh unique constraint
+        WargaUpdateResult result;
+        try {
+            result = queryMetrics.record("updateByNik",
+                            () -> wargaJdbcRepository.updateByNik(nik, req.nama(), req.phoneNumber(), req.alamat(), req.rt(), req.rw()),
+                            r -> r.isPresent() ? 1 : 0)
+                    .orElseThrow(() -> new DataNotFoundException("Update Warga dengan NIK " + nik + " tidak ditemukan"));
+        } catch (DataIntegrityViolationException e) {
+            throw toConflict(e);
+        }
 
-        if (!existingWarga.getPhoneNumber().equals(req.phoneNumber())) {
-            wargaRepository.findByPhoneNumber(req.phoneNumber()).ifPresent(w -> {
-                throw new ConflictException("Nomor telepon sudah terdaftar");
-            });
+        WargaResponse res = afterUpdate(nik, result);
+        log.info("End update warga with NIK: {}", nik);
+        return res;
+    }
+
+    /**
+     * Partial update: hanya field yang dikirim yang di-SET, satu statement UPDATE ... WHERE version = ?.
+     * Version yang sudah berubah (lost update) ditolak dengan VersionConflictException.
+     */
+    @Transactional
+    public WargaResponse patchWarga(String nik, WargaUpdateRequest req) throws DataNotFoundException, ConflictException {
+        log.info("Start patch warga with NIK: {} version={}", nik, req.version());
+        if (!req.hasChanges()) {
+            throw new BadRequestException("Tidak ada field yang diubah");
         }
 
-        existingWarga.setNama(req.nama());
-        existingWarga.setPhoneNumber(req.phoneNumber());
-        existingWarga.setRt(req.rt());
-        existingWarga.setRw(req.rw());
-        existingWarga.setAlamat(req.alamat());
+        WargaUpdateResult result;
+        try {
+            result = queryMetrics.record("patchByNik",
+                            () -> wargaJdbcRepository.patchByNik(nik, req.version(), req.nama(), req.phoneNumber(),
+                                    req.alamat(), req.rt(), req.rw()),
+                            r -> r.isPresent() ? 1 : 0)
+                    .orElseThrow(() -> new DataNotFoundException("Patch Warga dengan NIK " + nik + " tidak ditemukan"));
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            throw toConflict(e);
+        }
 
-        Warga updated = wargaRepository.save(existingWarga);
+        WargaResponse res = afterUpdate(nik, result);
+        log.info("End patch warga with NIK: {} version={}", nik, res.version());
+        return res;
+    }
 
-        log.info("End update warga with NIK: {}", nik);
+    /** Invalidasi cache + key filter setelah UPDATE (PUT / PATCH) berhasil. */
+    private WargaResponse afterUpdate(String nik, WargaUpdateResult result) {
+        Warga updated = result.warga();
+        wargaCountCache.invalidateAll();
+        wargaLookupCache.evict(nik, result.previousPhoneNumber(), updated.getPhoneNumber());
+        wargaKeyFilter.add(null, updated.getPhoneNumber());
+        if (!updated.getPhoneNumber().equals(result.previousPhoneNumber())) {
+            wargaKeyFilter.markStale(1);
+        }
+        wargaStats.moved(result.previousRw(), result.previousRt(), updated.getRw(), updated.getRt());
         return mapToResponse(updated);
     }
 
+    @Transactional
     public void deleteWarga(String nik) throws DataNotFoundException {
         log.info("Start delete warga with NIK: {}", nik);
 
-        Warga existingWarga = wargaRepository.findByNik(nik)
+        // satu statement DELETE ... RETURNING; tidak ada baris terhapus -> 404
+        WargaDeleteResult deleted = queryMetrics.record("delete", () -> wargaJdbcRepository.deleteByNik(nik), r -> r.isPresent() ? 1 : 0)
                 .orElseThrow(() -> new DataNotFoundException("Delete Warga dengan NIK " + nik + " tidak ditemukan"));
-
-        wargaRepository.delete(existingWarga);
+        wargaCountCache.invalidateAll();
+        wargaLookupCache.evict(nik, deleted.phoneNumber());
+        wargaKeyFilter.markStale(2);
+        wargaStats.removed(deleted.rw(), deleted.rt());
 
         log.info("End delete warga with NIK: {}", nik);
-        mapToResponse(existingWarga);
     }
 
-    private WargaResponse mapToResponse(Warga w) {
+    /**
+     * Hapus banyak warga berdasarkan daftar NIK atau RT/RW. Sengaja tanpa @Transactional: setiap
+     * chunk (maks. warga.bulk-delete.chunk-size baris) adalah statement set-based dengan transaksi
+     * sendiri, sehingga lock baris dilepas per chunk dan tidak ada entity yang dimuat.
+     */
+    public WargaBulkDeleteResponse bulkDeleteWarga(WargaBulkDeleteRequest req) throws BadRequestException {
+        boolean byNiks = req.niks() != null && !req.niks().isEmpty();
+        boolean byFilter = req.rt() != null || req.rw() != null;
+        if (byNiks == byFilter) {
+            throw new BadRequestException("Isi salah satu: niks atau rt/rw");
+        }
+        long started = System.nanoTime();
+        long deleted = 0;
+        int chunks = 0;
+        Long notFound = null;
+
+        if (byNiks) {
+            List<String> niks = req.niks().stream().filter(n -> n != null && !n.isBlank()).map(String::trim).distinct().toList();
+            if (niks.size() > bulkDeleteMaxNiks) {
+                throw new BadRequestException("Maksimal " + bulkDeleteMaxNiks + " NIK per bulk delete");
+            }
+            log.info("Start bulk delete warga: niks={}", niks.size());
+            for (int from = 0; from < niks.size(); from += bulkDeleteChunkSize) {
+                List<String> chunk = niks.subList(from, Math.min(from + bulkDeleteChunkSize, niks.size()));
+                deleted += afterBulkDeleteChunk(
+                        queryMetrics.record("bulkDelete", "niks", () -> wargaJdbcRepository.deleteByNiks(chunk), WargaService::sum));
+                chunks++;
+            }
+            notFound = niks.size() - deleted;
+        } else {
+            WargaFilter filter = new WargaFilter();
+            filter.setRt(req.rt());
+            filter.setRw(req.rw());
+            WargaCriteria criteria = WargaCriteria.of(null, filter);
+            if (!criteria.hasFilter()) {
+                throw new BadRequestException("rt / rw harus lebih dari 0");
+            }
+            log.info("Start bulk delete warga: rt={} rw={}", criteria.rt(), criteria.rw());
+            long affected;
+            do {
+                affected = afterBulkDeleteChunk(queryMetrics.record("bulkDelete", criteria.shape(),
+                        () -> wargaJdbcRepository.deleteChunk(criteria, bulkDeleteChunkSize), WargaService::sum));
+                deleted += affected;
+                chunks++;
+            } while (affected == bulkDeleteChunkSize);
+        }
+
+        long tookMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("End bulk delete warga: deleted={} chunks={} tookMs={}", deleted, chunks, tookMs);
+        return new WargaBulkDeleteResponse(byNiks ? "niks" : "filter", deleted, notFound, chunks, tookMs);
+    }
+
+    /**
+     * Setiap chunk sudah commit sendiri: statistik, cache dan key filter langsung disesuaikan per chunk,
+     * supaya chunk yang sudah terhapus tetap terlihat terhapus walaupun chunk berikutnya gagal.
+     * Return jumlah baris terhapus.
+     */
+    private long afterBulkDeleteChunk(List<WargaCellCount> cells) {
+        long deleted = sum(cells);
+        if (deleted > 0) {
+            wargaStats.removed(cells);
+            wargaCountCache.invalidateAll();
+            wargaLookupCache.invalidateAll();
+            wargaKeyFilter.markStale(2 * deleted);
+        }
+        return deleted;
+    }
+
+    private static long sum(List<WargaCellCount> cells) {
+        return cells.stream().mapToLong(WargaCellCount::count).sum();
+    }
+
+    /** Jumlah warga per RW / RT dari aggregate in-memory (tanpa query ke DB selama aggregate siap). */
+    public WargaStatsResponse getStats() {
+        return wargaStats.snapshot()
+                .orElseThrow(() -> new ServiceUnavailableException("Statistik warga belum tersedia, silakan coba beberapa saat lagi"));
+    }
+
+    /**
+     * Terjemahkan pelanggaran unique constraint warga ke ConflictException.
+     * Pelanggaran lain (CHECK, NOT NULL) dilempar ulang apa adanya.
+     */
+    private static ConflictException toConflict(DataIntegrityViolationException e) {
+        ServerErrorMessage error = null;
+        for (Throwable t = e; t != null && error == null; t = t.getCause()) {
+            if (t instanceof PSQLException psql && UNIQUE_VIOLATION.equals(psql.getSQLState())) {
+                error = psql.getServerErrorMessage();
+            }
+        }
+        if (error == null) {
+            throw e;
+        }
+        // nama constraint bisa dari initdb (warga_nik_key) atau hasil generate Hibernate; detail selalu "Key (kolom)=..."
+        String hint = (error.getConstraint() + " " + error.getDetail()).toLowerCase();
+        if (hint.contains("phone_number")) {
+            return new ConflictException("Nomor telepon sudah terdaftar");
+        }
+        if (hint.contains("nik")) {
+            return new ConflictException("NIK sudah terdaftar");
+        }
+        throw e;
+    }
+
+    // hasilnya di-cache sampai TTL lookup cache, jadi selalu dibaca dari primary (bukan replica yang bisa tertinggal)
+    private Optional<WargaResponse> loadByNik(String nik) {
+        return ReplicaRoutingDataSource.onPrimary(() -> queryMetrics.record("findByNik",
+                () -> wargaRepository.findResponseByNik(nik), w -> w.isPresent() ? 1 : 0));
+    }
+
+    /** Loader cache untuk banyak NIK: satu query, NIK yang tidak ditemukan menjadi entry negatif. */
+    private Map<String, Optional<WargaResponse>> loadByNiks(Set<String> niks) {
+        List<WargaResponse> rows = ReplicaRoutingDataSource.onPrimary(() -> queryMetrics.record("findByNiks",
+                () -> wargaJdbcRepository.findResponsesByNiks(niks), List::size));
+        Map<String, Optional<WargaResponse>> loaded = new HashMap<>();
+        niks.forEach(nik -> loaded.put(nik, Optional.empty()));
+        rows.forEach(w -> loaded.put(w.nik(), Optional.of(w)));
+        return loaded;
+    }
+
+    // package-private static supaya bisa diukur langsung oleh benchmark JMH (src/jmh)
+    static WargaResponse mapToResponse(Warga w) {
         return WargaResponse.builder()
                 .id(String.valueOf(w.getId()))
                 .nik(w.getNik())
@@ -196,11 +694,57 @@ public class WargaService {
                 .rt(w.getRt())
                 .rw(w.getRw())
                 .alamat(w.getAlamat())
+                .version(w.getVersion())
+                .lastModified(w.getUpdatedAt() != null ? w.getUpdatedAt() : w.getCreatedAt())
                 .build();
     }
 
+    // setara @Transactional(readOnly = true) untuk kode yang berjalan di dalam single-flight
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    /** Estimasi planner; fallback ke COUNT(*) (cached) jika statistik tabel belum tersedia. */
+    private long estimateCount(WargaCriteria criteria, Specification<Warga> spec) {
+        String filter = criteria.shape();
+        return queryMetrics.record("estimate", filter, () -> wargaJdbcRepository.estimateCount(criteria), e -> 1)
+                .orElseGet(() -> wargaCountCache.get(criteria,
+                        () -> queryMetrics.record("count", filter, () -> wargaRepository.count(spec), c -> 1)));
+    }
+
+    private KeysetCursor decodeCursor(String token, String sortField, String direction) {
+        KeysetCursor cursor;
+        try {
+            cursor = KeysetCursor.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor tidak valid");
+        }
+        if (!cursor.sortField().equals(sortField) || !cursor.direction().equals(direction)) {
+            throw new BadRequestException("Cursor tidak sesuai dengan sortField/sortDirection");
+        }
+        if (!WargaSpecifications.isValidCursor(cursor)) {
+            throw new BadRequestException("Cursor tidak valid");
+        }
+        return cursor;
+    }
+
+    /** Nilai kolom sort dari entity, sesuai field hasil {@link #normalizeSortField(String)}. */
+    private Object sortValueOf(Warga w, String sortField) {
+        return switch (sortField) {
+            case "nama"        -> w.getNama();
+            case "nik"         -> w.getNik();
+            case PHONE_NUMBER -> w.getPhoneNumber();
+            case "rt"          -> w.getRt();
+            case "rw"          -> w.getRw();
+            default            -> w.getCreatedAt();
+        };
+    }
+
     /**
-     * Whitelist field untuk sorting. Return nama field sesuai entity.
+     * Whitelist field untuk sorting. Return nama field sesuai entity
+     * (atau "relevance" untuk urutan relevansi pencarian q).
      * Default fallback: createdAt
      */
     private String normalizeSortField(String input) {
@@ -212,10 +756,9 @@ public class WargaService {
             case "rt"          -> "rt";
             case "rw"          -> "rw";
             case CREATED_AT   -> CREATED_AT;
-            default -> {
-                log.warn("[sort] unsupported sortField='{}' -> fallback to createdAt", input);
-                yield CREATED_AT;
-            }
+            case RELEVANCE    -> RELEVANCE;
+            // tidak didukung -> createdAt; dicatat sebagai sortFallback di event list
+            default -> CREATED_AT;
         };
     }
 
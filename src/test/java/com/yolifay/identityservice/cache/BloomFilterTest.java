@@ -0,0 +1,60 @@
+package com.yolifay.identityservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void keyYangDiPutSelaluMightContain() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put(nik(i)));
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain(nik(i)))).isTrue();
+        assertThat(filter.insertions()).isEqualTo(10_000);
+    }
+
+    @Test
+    void falsePositiveRateSekitarFppPadaKapasitasPenuh() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put(nik(i)));
+
+        long falsePositives = IntStream.range(10_000, 110_000).filter(i -> filter.mightContain(nik(i))).count();
+        // fpp 1% dengan margin untuk variasi acak
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFpp()).isBetween(0.005, 0.02);
+    }
+
+    @Test
+    void filterKosongTidakMengandungApaPun() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        assertThat(filter.mightContain(nik(1))).isFalse();
+        assertThat(filter.expectedFpp()).isZero();
+    }
+
+    @Test
+    void putDariBanyakThreadTidakKehilanganBit() throws Exception {
+        BloomFilter filter = new BloomFilter(80_000, 0.01);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            int offset = t * 10_000;
+            pool.submit(() -> IntStream.range(offset, offset + 10_000).forEach(i -> filter.put(nik(i))));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(IntStream.range(0, 80_000).allMatch(i -> filter.mightContain(nik(i)))).isTrue();
+        assertThat(filter.insertions()).isEqualTo(80_000);
+    }
+
+    private static String nik(int i) {
+        return String.format("3273%012d", i);
+    }
+}
@@ -0,0 +1,171 @@
+package com.yolifay.identityservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> flight = new SingleFlight<>("test", meterRegistry);
+    private final ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pool.shutdownNow();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void followerBerbagiSatuEksekusiLeader() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Future<String> leader = pool.submit(() -> flight.execute("k", 1, blockingLoader(release, loads, "hasil")));
+        awaitUntil(() -> active() == 1);
+
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            followers.add(pool.submit(() -> flight.execute("k", 1, () -> "tidak boleh dipanggil")));
+        }
+        awaitUntil(() -> counter("coalesced") == 20);
+        release.countDown();
+
+        assertThat(leader.get(10, TimeUnit.SECONDS)).isEqualTo("hasil");
+        for (Future<String> f : followers) {
+            assertThat(f.get(10, TimeUnit.SECONDS)).isEqualTo("hasil");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(counter("leader")).isEqualTo(1);
+    }
+
+    @Test
+    void exceptionLeaderDiteruskanApaAdanyaKeFollower() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("query gagal");
+        Future<String> leader = pool.submit(() -> flight.execute("k", 1, () -> {
+            await(release);
+            throw failure;
+        }));
+        awaitUntil(() -> active() == 1);
+        Future<String> follower = pool.submit(() -> flight.execute("k", 1, () -> "tidak boleh dipanggil"));
+        awaitUntil(() -> counter("coalesced") == 1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).cause().isSameAs(failure);
+        assertThatThrownBy(() -> follower.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).cause().isSameAs(failure);
+        // gagal tidak di-cache: request berikutnya memuat ulang
+        assertThat(active()).isZero();
+        assertThat(flight.execute("k", 1, () -> "pulih")).isEqualTo("pulih");
+    }
+
+    @Test
+    void requestSetelahWriteTidakIkutEksekusiGenerationLama() throws Exception {
+        CountDownLatch releaseOld = new CountDownLatch(1);
+        CountDownLatch releaseNew = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Future<String> oldLeader = pool.submit(() -> flight.execute("k", 1, blockingLoader(releaseOld, loads, "sebelum write")));
+        Future<String> oldFollower = followerOnceLeaderStarted(1);
+
+        // write commit -> generation naik: harus memulai eksekusi sendiri walaupun eksekusi lama masih berjalan
+        Future<String> newLeader = pool.submit(() -> flight.execute("k", 2, blockingLoader(releaseNew, loads, "sesudah write")));
+        awaitUntil(() -> loads.get() == 2);
+        Future<String> newFollower = pool.submit(() -> flight.execute("k", 2, () -> "tidak boleh dipanggil"));
+        awaitUntil(() -> counter("coalesced") == 2);
+
+        // leader lama selesai duluan: tidak boleh menghapus entry generation baru
+        releaseOld.countDown();
+        assertThat(oldLeader.get(10, TimeUnit.SECONDS)).isEqualTo("sebelum write");
+        assertThat(oldFollower.get(10, TimeUnit.SECONDS)).isEqualTo("sebelum write");
+        assertThat(active()).isEqualTo(1);
+
+        Future<String> lateFollower = pool.submit(() -> flight.execute("k", 2, () -> "tidak boleh dipanggil"));
+        awaitUntil(() -> counter("coalesced") == 3);
+        releaseNew.countDown();
+
+        assertThat(newLeader.get(10, TimeUnit.SECONDS)).isEqualTo("sesudah write");
+        assertThat(newFollower.get(10, TimeUnit.SECONDS)).isEqualTo("sesudah write");
+        assertThat(lateFollower.get(10, TimeUnit.SECONDS)).isEqualTo("sesudah write");
+        assertThat(loads).hasValue(2);
+        assertThat(active()).isZero();
+    }
+
+    @Test
+    void entryDilepasSetelahLeaderSelesaiBukanCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(flight.execute("k", 1, () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        assertThat(active()).isZero();
+        assertThat(flight.execute("k", 1, () -> "v" + loads.incrementAndGet())).isEqualTo("v2");
+        assertThat(counter("leader")).isEqualTo(2);
+        assertThat(counter("coalesced")).isZero();
+    }
+
+    @Test
+    void keyBerbedaTidakSalingMenunggu() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> blocked = pool.submit(() -> flight.execute("a", 1, blockingLoader(release, new AtomicInteger(), "a")));
+        awaitUntil(() -> active() == 1);
+
+        assertThat(flight.execute("b", 1, () -> "b")).isEqualTo("b");
+        release.countDown();
+        assertThat(blocked.get(10, TimeUnit.SECONDS)).isEqualTo("a");
+    }
+
+    private Future<String> followerOnceLeaderStarted(long generation) {
+        awaitUntil(() -> active() == 1);
+        Future<String> follower = pool.submit(() -> flight.execute("k", generation, () -> "tidak boleh dipanggil"));
+        awaitUntil(() -> counter("coalesced") == 1);
+        return follower;
+    }
+
+    private static Supplier<String> blockingLoader(CountDownLatch release, AtomicInteger loads, String value) {
+        return () -> {
+            loads.incrementAndGet();
+            await(release);
+            return value;
+        };
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("warga.single-flight").tag("flight", "test").tag("result", result).counter().count();
+    }
+
+    private double active() {
+        return meterRegistry.get("warga.single-flight.active").tag("flight", "test").gauge().value();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("latch tidak dilepas");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("kondisi tidak tercapai dalam 10 detik");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
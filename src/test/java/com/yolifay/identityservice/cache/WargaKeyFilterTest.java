@@ -0,0 +1,116 @@
+package com.yolifay.identityservice.cache;
+
+import com.yolifay.identityservice.repository.WargaJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WargaKeyFilterTest {
+    private final List<String> db = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Runnable> duringStream = new AtomicReference<>(() -> { });
+    private WargaJdbcRepository repository;
+    private WargaKeyFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = mock(WargaJdbcRepository.class);
+        when(repository.estimateCount(any())).thenAnswer(inv -> Optional.of((long) db.size()));
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            List<String> snapshot = List.copyOf(db);
+            duringStream.get().run();
+            for (String nik : snapshot) {
+                handler.processRow(row(nik));
+            }
+            return null;
+        }).when(repository).streamKeys(anyInt(), any());
+
+        filter = new WargaKeyFilter(repository, true, 1_000, 0.01, Duration.ofHours(6), 0.1, 100,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void sebelumRebuildPertamaSemuaKeyMungkinAda() {
+        assertThat(filter.mightContainNik(nik(1))).isTrue();
+    }
+
+    @Test
+    void rebuildMemuatKeyDariDb() {
+        db.add(nik(1));
+        filter.rebuild();
+
+        assertThat(filter.mightContainNik(nik(1))).isTrue();
+        assertThat(filter.mightContainNik(nik(2))).isFalse();
+    }
+
+    @Test
+    void keyYangDitambahkanSelamaRebuildMasukKeFilterBaru() {
+        filter.rebuild();
+        // key ditulis setelah snapshot stream diambil: hanya sampai ke filter baru lewat building
+        duringStream.set(() -> filter.add(nik(7), null));
+        filter.rebuild();
+
+        assertThat(filter.mightContainNik(nik(7))).isTrue();
+    }
+
+    @Test
+    void keyYangDitambahkanDiLuarRebuildMasukKeFilterAktif() {
+        filter.rebuild();
+        filter.add(nik(3), null);
+
+        assertThat(filter.mightContainNik(nik(3))).isTrue();
+    }
+
+    @Test
+    void addBersamaanDenganRebuildTidakKehilanganKey() throws Exception {
+        filter.rebuild();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread rebuilder = Thread.ofPlatform().start(() -> {
+            while (running.get()) {
+                filter.rebuild();
+            }
+        });
+        try {
+            for (int i = 0; i < 5_000; i++) {
+                String nik = nik(100_000 + i);
+                // pola add() dalam transaksi: put sebelum commit, baris terlihat di DB, put lagi setelah commit
+                filter.add(nik, null);
+                db.add(nik);
+                filter.add(nik, null);
+            }
+        } finally {
+            running.set(false);
+            rebuilder.join();
+        }
+
+        assertThat(db).allMatch(filter::mightContainNik);
+    }
+
+    private static ResultSet row(String nik) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn(nik);
+        when(rs.getString(2)).thenReturn(null);
+        return rs;
+    }
+
+    private static String nik(int i) {
+        return String.format("3273%012d", i);
+    }
+}
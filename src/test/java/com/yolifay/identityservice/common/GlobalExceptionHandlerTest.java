@@ -0,0 +1,36 @@
+package com.yolifay.identityservice.common;
+
+import org.junit.jupiter.api.Test;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(new ConstantsProperties());
+
+    @Test
+    void uniqueViolationMenjadi409() {
+        var response = handler.handleDataIntegrityViolation(violation(PSQLState.UNIQUE_VIOLATION));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void pelanggaranLainBukanDataSudahAda() {
+        for (PSQLState state : new PSQLState[] { PSQLState.CHECK_VIOLATION, PSQLState.NOT_NULL_VIOLATION,
+                PSQLState.FOREIGN_KEY_VIOLATION, PSQLState.STRING_DATA_RIGHT_TRUNCATION }) {
+            var response = handler.handleDataIntegrityViolation(violation(state));
+
+            assertThat(response.getStatusCode()).as(state.name()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private static DataIntegrityViolationException violation(PSQLState state) {
+        // bentuk seperti dari Hibernate: PSQLException terbungkus beberapa lapis
+        RuntimeException wrapped = new RuntimeException("could not execute statement", new PSQLException("ERROR", state));
+        return new DataIntegrityViolationException("could not execute statement", wrapped);
+    }
+}
@@ -0,0 +1,106 @@
+package com.yolifay.identityservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitBucketTest {
+    private static final long MS = 1_000_000L;
+    // nanoTime boleh bernilai berapa pun, termasuk negatif
+    private static final long START = -5_000 * MS;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void clientBaruBolehBurstLaluDitolakDenganSisaWaktu() {
+        RateLimitInterceptor.Bucket bucket = bucket(10, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire("10.0.0.1", START)).isZero();
+        }
+        // token berikutnya satu emission (1/10 s) lagi
+        assertThat(bucket.tryAcquire("10.0.0.1", START)).isEqualTo(100 * MS);
+        assertThat(meterRegistry.get("warga.rate-limit.rejected").tag("cost", "test").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tokenTerisiSesuaiRateDanTidakMelebihiBurst() {
+        RateLimitInterceptor.Bucket bucket = bucket(10, 5);
+        drain(bucket, "10.0.0.1", START, 5);
+
+        assertThat(bucket.tryAcquire("10.0.0.1", START + 99 * MS)).isEqualTo(1 * MS);
+        assertThat(bucket.tryAcquire("10.0.0.1", START + 100 * MS)).isZero();
+        assertThat(bucket.tryAcquire("10.0.0.1", START + 100 * MS)).isPositive();
+
+        // diam lama: kembali penuh sebanyak burst, tidak lebih
+        long later = START + 60_000 * MS;
+        assertThat(drain(bucket, "10.0.0.1", later, 10)).isEqualTo(5);
+    }
+
+    @Test
+    void requestYangDitolakTidakMemakaiToken() {
+        RateLimitInterceptor.Bucket bucket = bucket(10, 1);
+        assertThat(bucket.tryAcquire("10.0.0.1", START)).isZero();
+
+        long wait = bucket.tryAcquire("10.0.0.1", START);
+        for (int i = 0; i < 100; i++) {
+            bucket.tryAcquire("10.0.0.1", START + i * 10_000);
+        }
+        assertThat(bucket.tryAcquire("10.0.0.1", START + wait)).isZero();
+    }
+
+    @Test
+    void bucketTerpisahPerClient() {
+        RateLimitInterceptor.Bucket bucket = bucket(1, 2);
+        drain(bucket, "10.0.0.1", START, 2);
+
+        assertThat(bucket.tryAcquire("10.0.0.1", START)).isPositive();
+        assertThat(bucket.tryAcquire("10.0.0.2", START)).isZero();
+    }
+
+    @Test
+    void requestBersamaanTidakMelebihiBurst() throws Exception {
+        RateLimitInterceptor.Bucket bucket = bucket(1, 50);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tasks.add(() -> drain(bucket, "10.0.0.1", START, 100));
+        }
+        int granted = 0;
+        for (Future<Integer> f : pool.invokeAll(tasks)) {
+            granted += f.get();
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(granted).isEqualTo(50);
+    }
+
+    @Test
+    void konfigurasiTidakValidDitolak() {
+        assertThatThrownBy(() -> bucket(0, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bucket(10, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private RateLimitInterceptor.Bucket bucket(double perSecond, int burst) {
+        return new RateLimitInterceptor.Bucket("test", perSecond, burst, 1_000, meterRegistry);
+    }
+
+    private static int drain(RateLimitInterceptor.Bucket bucket, String client, long now, int attempts) {
+        int granted = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (bucket.tryAcquire(client, now) == 0) granted++;
+        }
+        return granted;
+    }
+}
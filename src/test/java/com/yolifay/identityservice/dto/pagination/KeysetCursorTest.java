@@ -0,0 +1,63 @@
+package com.yolifay.identityservice.dto.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+    private static final UUID ID = UUID.fromString("2f6f4c1e-8a57-4c3b-9d6e-0c2a5b7e9f10");
+
+    @Test
+    void roundTripSemuaTipeNilai() {
+        assertRoundTrip(new KeysetCursor("nama", "asc", "Budi Santoso", ID));
+        assertRoundTrip(new KeysetCursor("rt", "desc", 7, ID));
+        assertRoundTrip(new KeysetCursor("rw", "asc", null, ID));
+        assertRoundTrip(new KeysetCursor("createdAt", "desc", Instant.parse("2026-01-02T03:04:05.123456Z"), ID));
+    }
+
+    @Test
+    void nilaiStringBolehMengandungSeparatorDanKarakterNonAscii() {
+        assertRoundTrip(new KeysetCursor("nama", "asc", "a|b|c", ID));
+        assertRoundTrip(new KeysetCursor("nama", "asc", "Ñoño 東京", ID));
+        assertRoundTrip(new KeysetCursor("nama", "asc", "", ID));
+    }
+
+    @Test
+    void tokenUrlSafeTanpaPadding() {
+        String token = new KeysetCursor("nama", "asc", "??>>", ID).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "nama|asc|" + "2f6f4c1e-8a57-4c3b-9d6e-0c2a5b7e9f10",          // bagian kurang
+            "nama|asc|bukan-uuid|sBudi",
+            "rt|asc|2f6f4c1e-8a57-4c3b-9d6e-0c2a5b7e9f10|iabc",
+            "createdAt|asc|2f6f4c1e-8a57-4c3b-9d6e-0c2a5b7e9f10|tkemarin",
+            "nama|asc|2f6f4c1e-8a57-4c3b-9d6e-0c2a5b7e9f10|xBudi",         // tag tidak dikenal
+            "nama|asc|2f6f4c1e-8a57-4c3b-9d6e-0c2a5b7e9f10|"               // nilai kosong tanpa tag
+    })
+    void tokenRusakDitolakSebagaiIllegalArgument(String raw) {
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> KeysetCursor.decode(token)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tokenBukanBase64Ditolak() {
+        assertThatThrownBy(() -> KeysetCursor.decode("bukan base64!")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertRoundTrip(KeysetCursor cursor) {
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+}
@@ -0,0 +1,139 @@
+package com.yolifay.identityservice.repository;
+
+import com.yolifay.identityservice.dto.filter.WargaFilter;
+import com.yolifay.identityservice.dto.pagination.KeysetCursor;
+import com.yolifay.identityservice.entity.Warga;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset seek terhadap PostgreSQL sungguhan (urutan NULL ditentukan database). Data uji dibuat di
+ * transaksi test dan di-rollback; filter q membatasi query ke data uji saja.
+ */
+@SpringBootTest
+@Transactional
+class WargaSpecificationsTest {
+    private static final String MARKER = "zqkeysettest";
+
+    @Autowired
+    private WargaRepository wargaRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Specification<Warga> onlyTestRows;
+
+    @BeforeEach
+    void setUp() {
+        // beberapa NULL di tengah dan nilai rt yang sama supaya tie-breaker id ikut diuji
+        Integer[] rts = { 3, null, 1, 3, null, 2, null, 1, 3 };
+        for (int i = 0; i < rts.length; i++) {
+            wargaRepository.save(Warga.builder()
+                    .nik("98000000000000%02d".formatted(i))
+                    .nama("Warga " + MARKER + " " + (char) ('a' + (i * 5) % rts.length))
+                    .phoneNumber("0890000000%02d".formatted(i))
+                    .alamat("Jl. Uji")
+                    .rt(rts[i])
+                    .rw(1)
+                    .build());
+        }
+        wargaRepository.flush();
+        // baca ulang dari database: createdAt di entity yang masih managed belum dipotong ke presisi kolom
+        entityManager.clear();
+        onlyTestRows = WargaSpecifications.filter(WargaCriteria.of(MARKER, new WargaFilter()));
+    }
+
+    @Test
+    void seekAscMelewatiBlokNullDiAkhir() {
+        List<Warga> all = assertSeekMatchesFullOrder("rt", Sort.Direction.ASC, 2);
+
+        assertThat(all.subList(all.size() - 3, all.size())).allMatch(w -> w.getRt() == null);
+    }
+
+    @Test
+    void seekDescMulaiDariBlokNullLaluNilaiNonNull() {
+        List<Warga> all = assertSeekMatchesFullOrder("rt", Sort.Direction.DESC, 2);
+
+        assertThat(all.subList(0, 3)).allMatch(w -> w.getRt() == null);
+    }
+
+    @Test
+    void cursorTepatDiBatasBlokNull() {
+        // halaman 1 baris: setiap baris (termasuk NULL pertama dan terakhir) pernah menjadi cursor
+        assertSeekMatchesFullOrder("rt", Sort.Direction.ASC, 1);
+        assertSeekMatchesFullOrder("rt", Sort.Direction.DESC, 1);
+    }
+
+    @Test
+    void seekKolomNonNullDanKolomUnik() {
+        assertSeekMatchesFullOrder("nama", Sort.Direction.ASC, 4);
+        assertSeekMatchesFullOrder("nik", Sort.Direction.DESC, 4);
+        assertSeekMatchesFullOrder("createdAt", Sort.Direction.ASC, 4);
+    }
+
+    @Test
+    void cursorDenganTipeNilaiSalahTidakValid() {
+        UUID id = UUID.randomUUID();
+
+        assertThat(WargaSpecifications.isValidCursor(new KeysetCursor("rt", "asc", 1, id))).isTrue();
+        assertThat(WargaSpecifications.isValidCursor(new KeysetCursor("rt", "asc", null, id))).isTrue();
+        assertThat(WargaSpecifications.isValidCursor(new KeysetCursor("rt", "asc", "1", id))).isFalse();
+        assertThat(WargaSpecifications.isValidCursor(new KeysetCursor("createdAt", "asc", 1, id))).isFalse();
+        assertThat(WargaSpecifications.isValidCursor(new KeysetCursor("createdAt", "asc", Instant.EPOCH, id))).isTrue();
+        assertThat(WargaSpecifications.isValidCursor(new KeysetCursor("nik", "asc", null, id))).isFalse();
+        assertThat(WargaSpecifications.isValidCursor(new KeysetCursor("nama", "asc", Instant.EPOCH, id))).isFalse();
+        assertThat(WargaSpecifications.isValidCursor(new KeysetCursor("alamat", "asc", "x", id))).isFalse();
+    }
+
+    /** Halaman demi halaman lewat {@link WargaSpecifications#after} harus sama persis dengan satu query penuh. */
+    private List<Warga> assertSeekMatchesFullOrder(String sortField, Sort.Direction dir, int perpage) {
+        Sort sort = Sort.by(dir, sortField);
+        if (!WargaSpecifications.UNIQUE_SORT_FIELDS.contains(sortField)) {
+            sort = sort.and(Sort.by(dir, "id"));
+        }
+        List<Warga> expected = wargaRepository.findSlice(onlyTestRows, sort, 0, 100);
+        assertThat(expected).hasSize(9);
+
+        List<Warga> paged = new ArrayList<>();
+        KeysetCursor cursor = null;
+        while (true) {
+            Specification<Warga> spec = cursor == null ? onlyTestRows : onlyTestRows.and(WargaSpecifications.after(cursor));
+            List<Warga> page = wargaRepository.findSlice(spec, sort, 0, perpage);
+            paged.addAll(page);
+            if (page.size() < perpage || paged.size() > expected.size()) {
+                break;
+            }
+            Warga last = page.getLast();
+            cursor = KeysetCursor.decode(new KeysetCursor(sortField, dir.name().toLowerCase(),
+                    valueOf(last, sortField), last.getId()).encode());
+        }
+
+        assertThat(paged).extracting(Warga::getId).containsExactlyElementsOf(
+                expected.stream().map(Warga::getId).toList());
+        return expected;
+    }
+
+    private static Object valueOf(Warga w, String sortField) {
+        return switch (sortField) {
+            case "rt" -> w.getRt();
+            case "nama" -> w.getNama();
+            case "nik" -> w.getNik();
+            case "createdAt" -> w.getCreatedAt();
+            default -> throw new IllegalArgumentException(sortField);
+        };
+    }
+}